@@ -0,0 +1,25 @@
+package com.simon.credit.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞分布式锁: 等待期间不占用调用线程, 由定时器和释放通知驱动
+ * @author XUZIMING 2026-10-18
+ */
+public interface AsyncDistributedLock extends DistributedLock {
+
+	/**
+	 * 异步加锁
+	 * @param maxWait 最大等待时间
+	 * @param waitUnit 最大等待时间单位
+	 * @return true:加锁成功; false:加锁失败
+	 */
+	CompletableFuture<Boolean> tryLockAsync(long maxWait, TimeUnit waitUnit);
+
+	/**
+	 * 异步释放锁
+	 */
+	CompletableFuture<Void> releaseAsync();
+
+}
@@ -0,0 +1,30 @@
+package com.simon.credit.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 守护线程工厂: 线程名为前缀加序号, 各分布式锁实现的共享线程池不阻止JVM退出
+ * @author XUZIMING 2026-10-18
+ */
+public final class DaemonThreadFactory implements ThreadFactory {
+
+	private final String namePrefix;
+
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	/**
+	 * @param namePrefix 线程名前缀
+	 */
+	public DaemonThreadFactory(String namePrefix) {
+		this.namePrefix = namePrefix;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, namePrefix + "-" + sequence.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
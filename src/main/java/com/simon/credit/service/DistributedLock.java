@@ -14,6 +14,9 @@ public interface DistributedLock {
 	/** 加锁最大等待时间(默认为3000毫秒), 超时则加锁失败 */
 	long LOCK_MAX_WAIT_MILLISECONDS = TimeUnit.SECONDS.toMillis(LOCK_MAX_WAIT_SECONDS);
 
+	/** 不支持防护令牌 */
+	long NO_FENCING_TOKEN = -1L;
+
 	/**
 	 * 加锁
 	 * @param maxWait 最大等待时间
@@ -33,4 +36,13 @@ public interface DistributedLock {
 	 */
 	void realseLock();
 
+	/**
+	 * 获取最近一次加锁成功时发放的防护令牌(同一把锁严格递增), 下游存储只接受不小于已见最大值的令牌,
+	 * 从而拒绝租约过期后仍在写入的旧持有者
+	 * @return 防护令牌, 不支持时返回{@link #NO_FENCING_TOKEN}
+	 */
+	default long getFencingToken() {
+		return NO_FENCING_TOKEN;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.simon.credit.service;
+
+/**
+ * 分布式读写锁: 读锁之间共享, 写锁独占; 有写者等待时新的读者让行, 避免写者饥饿
+ * @author XUZIMING 2026-10-18
+ */
+public interface DistributedReadWriteLock {
+
+	/**
+	 * 读锁(共享)
+	 */
+	DistributedLock readLock();
+
+	/**
+	 * 写锁(独占)
+	 */
+	DistributedLock writeLock();
+
+}
@@ -0,0 +1,39 @@
+package com.simon.credit.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式信号量(集群范围的许可池), 许可带租约, 持有节点崩溃后许可自动回收
+ * @author XUZIMING 2026-10-18
+ */
+public interface DistributedSemaphore {
+
+	/**
+	 * 获取许可(全部获取或全部不获取)
+	 * @param permits 许可数
+	 * @param maxWait 最大等待时间
+	 * @param waitUnit 最大等待时间单位
+	 * @return true:获取成功; false:获取失败
+	 */
+	boolean tryAcquire(int permits, long maxWait, TimeUnit waitUnit);
+
+	/**
+	 * 获取一个许可
+	 * @param maxWait 最大等待时间
+	 * @param waitUnit 最大等待时间单位
+	 * @return true:获取成功; false:获取失败
+	 */
+	boolean tryAcquire(long maxWait, TimeUnit waitUnit);
+
+	/**
+	 * 归还许可
+	 * @param permits 许可数
+	 */
+	void release(int permits);
+
+	/**
+	 * 归还一个许可
+	 */
+	void release();
+
+}
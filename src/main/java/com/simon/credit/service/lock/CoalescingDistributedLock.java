@@ -0,0 +1,92 @@
+package com.simon.credit.service.lock;
+
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.DistributedLock;
+
+/**
+ * 本地合并分布式锁(装饰器)<br>
+ * 同一JVM内对同一锁键的并发加锁先在本地锁表排队, 只有队首线程去竞争远程锁(Redis/ZooKeeper),
+ * 远程加锁流量按JVM内并发度缩减
+ * @author XUZIMING 2026-10-18
+ */
+public class CoalescingDistributedLock implements DistributedLock {
+
+    private final LocalLockTable lockTable;
+
+    private final String lockKey;
+
+    private final DistributedLock delegate;
+
+    /** 加锁成功后持有的本地锁条目 */
+    private LocalLockTable.Entry entry;
+
+    public CoalescingDistributedLock(String lockKey, DistributedLock delegate) {
+        this(LocalLockTable.getDefault(), lockKey, delegate);
+    }
+
+    public CoalescingDistributedLock(LocalLockTable lockTable, String lockKey, DistributedLock delegate) {
+        this.lockTable = lockTable;
+        this.lockKey = lockKey;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean tryLock(long maxWait, TimeUnit waitUnit) {
+        long tryLockDeadline = System.currentTimeMillis() + waitUnit.toMillis(maxWait);
+        LocalLockTable.Entry current = lockTable.acquire(lockKey);
+
+        boolean localLocked = false;
+        try {
+            localLocked = current.lock.tryLock(maxWait, waitUnit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!localLocked) {
+            lockTable.release(lockKey, current);
+            return false;
+        }
+
+        // 本地排到队首, 用剩余等待时间竞争远程锁
+        long remaining = Math.max(tryLockDeadline - System.currentTimeMillis(), 0L);
+        boolean remoteLocked = false;
+        try {
+            remoteLocked = delegate.tryLock(remaining, TimeUnit.MILLISECONDS);
+        } finally {
+            if (remoteLocked) {
+                entry = current;
+            } else {
+                current.lock.unlock();
+                lockTable.release(lockKey, current);
+            }
+        }
+        return remoteLocked;
+    }
+
+    @Override
+    public boolean tryLock() {
+        return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long getFencingToken() {
+        return delegate.getFencingToken();
+    }
+
+    @Override
+    public void realseLock() {
+        if (entry == null) {
+            return;
+        }
+
+        LocalLockTable.Entry current = entry;
+        entry = null;
+        try {
+            delegate.realseLock();
+        } finally {
+            current.lock.unlock();
+            lockTable.release(lockKey, current);
+        }
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.simon.credit.service.lock;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * 分布式业务锁
@@ -12,7 +15,7 @@ public interface DistributedBizLock {
     long LOCK_MAX_WAIT_SECONDS = 3L;
 
     /**
-     * 加锁
+     * 加锁(加锁失败时只记录日志, 不执行业务)
      * @param maxWait 最大等待时间
      * @param waitUnit 最大等待时间单位
      */
@@ -23,4 +26,44 @@ public interface DistributedBizLock {
      */
     void lock(String lockName, LockBiz lockBiz);
 
+    /**
+     * 加锁执行需要防护令牌的业务(加锁失败时只记录日志, 不执行业务)
+     * @param maxWait 最大等待时间
+     * @param waitUnit 最大等待时间单位
+     */
+    void lock(String lockName, FencedLockBiz lockBiz, long maxWait, TimeUnit waitUnit);
+
+    /**
+     * 加锁执行需要防护令牌的业务(使用默认等待时间: 3秒)
+     */
+    void lock(String lockName, FencedLockBiz lockBiz);
+
+    /**
+     * 加锁执行业务并返回结果
+     * @param maxWait 最大等待时间
+     * @param waitUnit 最大等待时间单位
+     * @return 业务结果(可以为null)
+     * @throws TimeoutException 等待超时未加锁成功, 业务未执行
+     */
+    <T> T lock(String lockName, Supplier<T> biz, long maxWait, TimeUnit waitUnit) throws TimeoutException;
+
+    /**
+     * 加锁执行业务并返回结果(使用默认等待时间: 3秒)
+     * @throws TimeoutException 等待超时未加锁成功, 业务未执行
+     */
+    <T> T lock(String lockName, Supplier<T> biz) throws TimeoutException;
+
+    /**
+     * 异步加锁执行业务: 等待加锁不占用线程, 业务在业务线程池执行, 业务结束后由执行完成的线程释放锁
+     * @param maxWait 最大等待时间
+     * @param waitUnit 最大等待时间单位
+     * @return 业务结果(释放锁之后完成), 等待超时未加锁成功时以{@link TimeoutException}异常完成, 业务未执行
+     */
+    <T> CompletableFuture<T> lockAsync(String lockName, Supplier<T> biz, long maxWait, TimeUnit waitUnit);
+
+    /**
+     * 异步加锁执行业务(使用默认等待时间: 3秒), 等待超时未加锁成功时以{@link TimeoutException}异常完成
+     */
+    <T> CompletableFuture<T> lockAsync(String lockName, Supplier<T> biz);
+
 }
\ No newline at end of file
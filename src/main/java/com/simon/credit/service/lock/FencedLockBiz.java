@@ -0,0 +1,17 @@
+package com.simon.credit.service.lock;
+
+/**
+ * 需要防护令牌的加锁业务: 写入下游存储时携带令牌, 由存储拒绝过期持有者的写入<br>
+ * 单一抽象方法, 可直接以lambda表达式{@code token -> ...}提交
+ * @author XUZIMING 2026-10-18
+ */
+@FunctionalInterface
+public interface FencedLockBiz {
+
+	/**
+	 * 执行业务
+	 * @param fencingToken 本次加锁的防护令牌
+	 */
+	void execute(long fencingToken);
+
+}
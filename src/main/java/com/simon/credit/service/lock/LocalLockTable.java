@@ -0,0 +1,60 @@
+package com.simon.credit.service.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本地锁表: 按锁键分配JVM内的公平锁, 引用计数归零(无人持有也无人等待)时立即回收
+ * @author XUZIMING 2026-10-18
+ */
+public final class LocalLockTable {
+
+    private static final LocalLockTable DEFAULT = new LocalLockTable();
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static LocalLockTable getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 引用锁键对应的本地锁(不存在则创建)
+     * @param lockKey 锁键
+     * @return 本地锁条目, 使用完毕后须调用{@link #release(String, Entry)}
+     */
+    Entry acquire(String lockKey) {
+        return entries.compute(lockKey, (key, entry) -> {
+            Entry result = entry != null ? entry : new Entry();
+            result.refs++;
+            return result;
+        });
+    }
+
+    /**
+     * 解除引用, 引用计数归零时从锁表中移除
+     */
+    void release(String lockKey, Entry entry) {
+        entries.computeIfPresent(lockKey, (key, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            return --current.refs == 0 ? null : current;
+        });
+    }
+
+    /**
+     * 当前锁表大小
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    static final class Entry {
+        /** 引用计数(仅在compute中修改) */
+        private int refs;
+
+        final ReentrantLock lock = new ReentrantLock(true);
+    }
+
+}
@@ -4,11 +4,20 @@ package com.simon.credit.service.lock;
  * 加锁的业务
  * @author XUZIMING 2021-01-30
  */
-public interface LockBiz {
+public interface LockBiz extends FencedLockBiz {
 
 	/**
 	 * 执行业务
 	 */
 	void execute();
 
-}
\ No newline at end of file
+	/**
+	 * 执行业务(携带防护令牌, 写入下游存储时一并提交以拒绝过期持有者), 默认忽略令牌
+	 * @param fencingToken 本次加锁的防护令牌
+	 */
+	@Override
+	default void execute(long fencingToken) {
+		execute();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.simon.credit.service.lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 加锁业务批量执行(组提交)<br>
+ * 同一锁名称在本节点排队的业务由一个线程批量取出, 在一次加锁内依次执行, 加锁/释放锁的开销由整批分摊;
+ * 单批业务数与单批持有锁时间有上限, 超出后释放锁, 剩余业务在下一次加锁内执行.
+ * 每个业务有各自的完成结果, 在释放锁之后完成
+ * @author XUZIMING 2026-10-18
+ */
+final class LockBizBatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockBizBatcher.class);
+
+    private final RedisDistributedBizLock bizLock;
+
+    /** 排队中的业务(key: 锁名称), 队列取空后移除 */
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+
+    /** 单批最多执行的业务数 */
+    private volatile int maxBatchSize = 64;
+
+    /** 单批最长持有锁时间(毫秒), 至少执行一个业务 */
+    private volatile long maxHoldMillis = 100L;
+
+    LockBizBatcher(RedisDistributedBizLock bizLock) {
+        this.bizLock = bizLock;
+    }
+
+    void setLimits(int maxBatchSize, long maxHoldMillis) {
+        if (maxBatchSize <= 0 || maxHoldMillis <= 0) {
+            throw new IllegalArgumentException("batch limits must be positive.");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxHoldMillis = maxHoldMillis;
+    }
+
+    /**
+     * 提交业务, 当前没有批次在执行时由业务线程池启动一个批次
+     * @return 业务完成结果, 加锁失败时以{@link TimeoutException}异常完成
+     */
+    CompletableFuture<Void> submit(String lockName, FencedLockBiz lockBiz, Executor executor) {
+        Task task = new Task(lockBiz);
+        while (true) {
+            Batch batch = batches.computeIfAbsent(lockName, Batch::new);
+            boolean start;
+            synchronized (batch) {
+                if (batch.retired) {
+                    // 批次恰好取空移除, 重新获取
+                    continue;
+                }
+                batch.tasks.add(task);
+                start = !batch.draining;
+                batch.draining = true;
+            }
+            if (start) {
+                try {
+                    executor.execute(() -> drain(batch));
+                } catch (RuntimeException rejected) {
+                    failAll(batch, rejected);
+                }
+            }
+            return task.future;
+        }
+    }
+
+    private void drain(Batch batch) {
+        while (true) {
+            List<Task> executed = new ArrayList<>();
+            Throwable failure = null;
+            try {
+                bizLock.execute(batch.lockName, fencingToken -> {
+                    executeBatch(batch, fencingToken, executed);
+                    return null;
+                }, DistributedBizLock.LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException | RuntimeException e) {
+                failure = e;
+            }
+
+            // 释放锁之后再完成各业务的结果, 调用方的后续处理不占用锁
+            for (Task task : executed) {
+                task.complete();
+            }
+            if (failure != null) {
+                // 加锁失败时本批次应执行的业务失败
+                for (Task task : poll(batch, maxBatchSize - executed.size())) {
+                    task.future.completeExceptionally(failure);
+                }
+            }
+
+            synchronized (batch) {
+                if (batch.tasks.isEmpty()) {
+                    batch.draining = false;
+                    batch.retired = true;
+                    batches.remove(batch.lockName, batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void executeBatch(Batch batch, long fencingToken, List<Task> executed) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxHoldMillis);
+        int limit = maxBatchSize;
+        while (executed.size() < limit && (executed.isEmpty() || System.nanoTime() < deadline)) {
+            Task task;
+            synchronized (batch) {
+                task = batch.tasks.poll();
+            }
+            if (task == null) {
+                return;
+            }
+            executed.add(task);
+            try {
+                task.lockBiz.execute(fencingToken);
+            } catch (Throwable e) {
+                LOGGER.error(e.getMessage(), e);
+                task.failure = e;
+            }
+        }
+    }
+
+    private List<Task> poll(Batch batch, int count) {
+        List<Task> tasks = new ArrayList<>();
+        synchronized (batch) {
+            while (tasks.size() < count && !batch.tasks.isEmpty()) {
+                tasks.add(batch.tasks.poll());
+            }
+        }
+        return tasks;
+    }
+
+    private void failAll(Batch batch, Throwable failure) {
+        List<Task> tasks;
+        synchronized (batch) {
+            tasks = new ArrayList<>(batch.tasks);
+            batch.tasks.clear();
+            batch.draining = false;
+            batch.retired = true;
+            batches.remove(batch.lockName, batch);
+        }
+        for (Task task : tasks) {
+            task.future.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * 同一锁名称的排队业务(队列及状态由批次对象的监视器保护)
+     */
+    private static final class Batch {
+        private final String lockName;
+        private final Queue<Task> tasks = new ArrayDeque<>();
+        /** 是否有线程在执行本批次 */
+        private boolean draining;
+        /** 已从排队表中移除 */
+        private boolean retired;
+
+        Batch(String lockName) {
+            this.lockName = lockName;
+        }
+    }
+
+    private static final class Task {
+        private final FencedLockBiz lockBiz;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private Throwable failure;
+
+        Task(FencedLockBiz lockBiz) {
+            this.lockBiz = lockBiz;
+        }
+
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(null);
+            }
+        }
+    }
+
+}
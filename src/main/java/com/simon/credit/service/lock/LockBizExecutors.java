@@ -0,0 +1,40 @@
+package com.simon.credit.service.lock;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.DaemonThreadFactory;
+
+/**
+ * 异步加锁业务的默认执行线程池<br>
+ * 运行在支持虚拟线程的JDK(21+)上时每个业务使用一个虚拟线程, 否则使用有界的守护线程池
+ * @author XUZIMING 2026-10-18
+ */
+final class LockBizExecutors {
+
+    /** 平台线程池大小 */
+    private static final int POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /** 默认业务执行线程池 */
+    static final ExecutorService DEFAULT_EXECUTOR = newDefaultExecutor();
+
+    private LockBizExecutors() {}
+
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            // 编译目标为JDK8, 通过反射使用虚拟线程
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new DaemonThreadFactory("lock-biz"));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+}
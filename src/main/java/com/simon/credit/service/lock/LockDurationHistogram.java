@@ -0,0 +1,107 @@
+package com.simon.credit.service.lock;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 加锁业务执行时长直方图(毫秒)<br>
+ * 按2的幂分段, 每段再细分8个桶, 相对误差不超过12.5%; 样本数达到阈值时所有桶计数减半,
+ * 旧样本的权重按指数衰减, 分位数跟随业务耗时的变化
+ * @author XUZIMING 2026-10-18
+ */
+final class LockDurationHistogram {
+
+    /** 每个2的幂区间细分的桶数 */
+    private static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** 桶数: 0~7毫秒各一个桶, 之后每个2的幂区间8个桶 */
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** 衰减阈值: 样本数达到此值时计数减半 */
+    private static final long DECAY_THRESHOLD = 4096L;
+
+    /** 计算分位数所需的最少样本数 */
+    static final long MIN_SAMPLES = 20L;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicBoolean decaying = new AtomicBoolean();
+
+    /**
+     * 记录一次执行时长
+     * @param millis 执行时长(毫秒)
+     */
+    void record(long millis) {
+        counts.incrementAndGet(bucket(millis));
+        if (total.incrementAndGet() >= DECAY_THRESHOLD) {
+            decay();
+        }
+    }
+
+    /**
+     * 计算分位数(取所在桶的上界)
+     * @param quantile 分位(0~1)
+     * @return 分位数(毫秒), 样本不足时返回-1
+     */
+    long percentile(double quantile) {
+        long samples = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            samples += counts.get(i);
+        }
+        if (samples < MIN_SAMPLES) {
+            return -1L;
+        }
+
+        long rank = (long) Math.ceil(samples * quantile);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private void decay() {
+        if (!decaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long remaining = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = counts.get(i);
+                long halved = count >> 1;
+                counts.addAndGet(i, halved - count);
+                remaining += halved;
+            }
+            total.set(remaining);
+        } finally {
+            decaying.set(false);
+        }
+    }
+
+    static int bucket(long millis) {
+        if (millis < SUB_BUCKETS) {
+            return (int) Math.max(millis, 0L);
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(millis);
+        int subBucket = (int) (millis >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.simon.credit.service.lock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 加锁重试策略注册表及内置策略<br>
+ * 按锁名称查找策略: 先精确匹配, 再匹配以"*"结尾的最长前缀, 都没有则使用默认策略(固定100毫秒, 与原有行为一致)
+ * @author XUZIMING 2026-10-18
+ */
+public final class LockRetryPolicies {
+
+    /** 默认固定重试间隔(毫秒) */
+    public static final long DEFAULT_DELAY_MILLIS = 100L;
+
+    private static final String WILDCARD = "*";
+
+    private static final ConcurrentMap<String, LockRetryPolicy> POLICIES = new ConcurrentHashMap<>();
+
+    private static volatile LockRetryPolicy defaultPolicy = fixedDelay(DEFAULT_DELAY_MILLIS);
+
+    private LockRetryPolicies() {}
+
+    /**
+     * 注册重试策略
+     * @param lockName 锁名称, 以"*"结尾表示前缀匹配
+     * @param retryPolicy 重试策略
+     */
+    public static void register(String lockName, LockRetryPolicy retryPolicy) {
+        POLICIES.put(lockName, retryPolicy);
+    }
+
+    /**
+     * 设置默认重试策略
+     */
+    public static void setDefault(LockRetryPolicy retryPolicy) {
+        defaultPolicy = retryPolicy;
+    }
+
+    /**
+     * 按锁名称查找重试策略, 未注册时返回默认策略
+     */
+    public static LockRetryPolicy forName(String lockName) {
+        LockRetryPolicy retryPolicy = lookup(lockName);
+        return retryPolicy != null ? retryPolicy : defaultPolicy;
+    }
+
+    /**
+     * 按锁名称查找已注册的重试策略
+     * @return 未注册时返回null
+     */
+    public static LockRetryPolicy lookup(String lockName) {
+        LockRetryPolicy retryPolicy = POLICIES.get(lockName);
+        if (retryPolicy != null) {
+            return retryPolicy;
+        }
+
+        int longestPrefix = -1;
+        for (Map.Entry<String, LockRetryPolicy> entry : POLICIES.entrySet()) {
+            String pattern = entry.getKey();
+            if (!pattern.endsWith(WILDCARD)) {
+                continue;
+            }
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            if (lockName.startsWith(prefix) && prefix.length() > longestPrefix) {
+                longestPrefix = prefix.length();
+                retryPolicy = entry.getValue();
+            }
+        }
+        return retryPolicy;
+    }
+
+    /**
+     * 固定间隔重试
+     * @param delayMillis 重试间隔(毫秒)
+     */
+    public static LockRetryPolicy fixedDelay(long delayMillis) {
+        return (attempt, lastDelayMillis, holderTtlMillis) -> delayMillis;
+    }
+
+    /**
+     * 指数退避 + 去相关抖动: 下一次等待时间在[base, 上一次 * 3]之间随机, 且不超过上限.
+     * 释放锁之后各等待者的重试时间被打散, 避免惊群
+     * @param baseMillis 基础等待时间(毫秒)
+     * @param maxMillis 等待时间上限(毫秒)
+     */
+    public static LockRetryPolicy exponentialJitter(long baseMillis, long maxMillis) {
+        if (baseMillis <= 0 || maxMillis < baseMillis) {
+            throw new IllegalArgumentException("require 0 < baseMillis <= maxMillis.");
+        }
+        return (attempt, lastDelayMillis, holderTtlMillis) -> {
+            long upper = Math.max(lastDelayMillis * 3, baseMillis + 1);
+            long delay = ThreadLocalRandom.current().nextLong(baseMillis, upper);
+            return Math.min(delay, maxMillis);
+        };
+    }
+
+    /**
+     * 感知租约的重试: 已知持有者剩余租约时等到租约到期再重试, 否则使用兜底策略
+     * @param fallback 剩余租约未知(或锁已无过期时间)时的兜底策略
+     */
+    public static LockRetryPolicy ttlAware(LockRetryPolicy fallback) {
+        return (attempt, lastDelayMillis, holderTtlMillis) -> {
+            if (holderTtlMillis > 0) {
+                return holderTtlMillis;
+            }
+            if (holderTtlMillis == 0) {
+                return 0L;
+            }
+            return fallback.nextDelayMillis(attempt, lastDelayMillis, holderTtlMillis);
+        };
+    }
+
+    /**
+     * 先自旋后休眠: 前若干次立即重试(适用于临界区极短的锁), 之后交给休眠策略
+     * @param spins 立即重试的次数
+     * @param park 自旋结束后的休眠策略
+     */
+    public static LockRetryPolicy spinThenPark(int spins, LockRetryPolicy park) {
+        return (attempt, lastDelayMillis, holderTtlMillis) -> {
+            if (attempt <= spins) {
+                return 0L;
+            }
+            return park.nextDelayMillis(attempt - spins, lastDelayMillis, holderTtlMillis);
+        };
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.simon.credit.service.lock;
+
+/**
+ * 加锁重试策略(SPI): 决定两次加锁尝试之间的等待时间, 可按锁名称在{@link LockRetryPolicies}中注册
+ * @author XUZIMING 2026-10-18
+ */
+public interface LockRetryPolicy {
+
+    /** 持有者剩余租约未知 */
+    long UNKNOWN_TTL = -1L;
+
+    /**
+     * 计算下一次尝试之前的等待时间
+     * @param attempt 已失败的尝试次数(从1开始)
+     * @param lastDelayMillis 上一次的等待时间(首次为0)
+     * @param holderTtlMillis 当前持有者的剩余租约(毫秒), 未知时为{@link #UNKNOWN_TTL}
+     * @return 等待时间(毫秒), 0表示立即重试
+     */
+    long nextDelayMillis(int attempt, long lastDelayMillis, long holderTtlMillis);
+
+}
@@ -0,0 +1,178 @@
+package com.simon.credit.service.lock;
+
+import org.redisson.RedissonLockEntry;
+import org.redisson.api.RFuture;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.protocol.RedisCommands;
+import org.redisson.client.protocol.RedisStrictCommand;
+import org.redisson.command.CommandAsyncExecutor;
+import org.redisson.pubsub.LockPubSub;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公平锁: 等待线程在有序集合中按先来后到排队, 锁空闲时只有队首能加锁,
+ * 释放锁时只向队首线程的专属频道发布通知, 其余等待线程不会被唤醒<br>
+ * 每个等待线程带有排队超时时间, 每次重试都会刷新, 放弃等待或进程崩溃的线程超时后被移出队列
+ * @author XUZIMING 2026-10-18
+ */
+public class MyRedissonFairLock extends MyRedissonLock {
+
+    /** 默认排队超时时间(毫秒) */
+    private static final long DEFAULT_THREAD_WAIT_MILLIS = 5000L;
+
+    /** 排队超时时间(毫秒) */
+    private final long threadWaitMillis;
+
+    public MyRedissonFairLock(CommandAsyncExecutor commandExecutor, String name) {
+        this(commandExecutor, name, DEFAULT_THREAD_WAIT_MILLIS);
+    }
+
+    public MyRedissonFairLock(CommandAsyncExecutor commandExecutor, String name, long threadWaitMillis) {
+        super(commandExecutor, name);
+        if (threadWaitMillis <= 0) {
+            throw new IllegalArgumentException("threadWaitMillis must be positive.");
+        }
+        this.threadWaitMillis = threadWaitMillis;
+    }
+
+    String getQueueName() {
+        return prefixName("redisson_lock_queue", this.getName());
+    }
+
+    String getTimeoutSetName() {
+        return prefixName("redisson_lock_timeout", this.getName());
+    }
+
+    @Override
+    protected RFuture<RedissonLockEntry> subscribe(long threadId) {
+        return this.pubSub.subscribe(this.getEntryName() + ":" + threadId, this.getChannelName() + ":" + this.getLockName(threadId));
+    }
+
+    @Override
+    protected void unsubscribe(RFuture<RedissonLockEntry> future, long threadId) {
+        this.pubSub.unsubscribe(future.getNow(), this.getEntryName() + ":" + threadId, this.getChannelName() + ":" + this.getLockName(threadId));
+    }
+
+    /**
+     * 加锁: 单次尝试(EVAL_NULL_BOOLEAN)不入队, 只在锁空闲且无人排队时加锁;
+     * 等待加锁时入队并返回剩余租约, 剩余租约不超过排队超时时间的一半, 保证等待线程在超时前重试并刷新排队位置
+     */
+    @Override
+    <T> RFuture<T> tryLockInnerAsync(long waitTime, long leaseTime, TimeUnit unit, long threadId, RedisStrictCommand<T> command) {
+        this.internalLockLeaseTime = unit.toMillis(leaseTime);
+        String purge = "local expired = redis.call('zrangebyscore', KEYS[3], '-inf', ARGV[4]); " +
+                       "for i = 1, #expired do " +
+                       "    redis.call('zrem', KEYS[2], expired[i]); " +
+                       "    redis.call('zrem', KEYS[3], expired[i]); " +
+                       "end; ";
+        String reentrant = "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) " +
+                           "then " +
+                               "redis.call('hincrby', KEYS[1], ARGV[2], 1); " +
+                               "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+                               returnFencingToken("KEYS[4]", "ARGV[5]") +
+                           "end; ";
+        List<Object> keys = Arrays.asList(this.getName(), this.getQueueName(), this.getTimeoutSetName(), this.getFencingName());
+        Object[] params = {this.internalLockLeaseTime, this.getLockName(threadId), this.threadWaitMillis, System.currentTimeMillis(), FENCING_FIELD};
+
+        if (command == RedisCommands.EVAL_NULL_BOOLEAN) {
+            String script = purge +
+                            "if (redis.call('exists', KEYS[1]) == 0 and redis.call('exists', KEYS[2]) == 0) " +
+                            "then " +
+                                "redis.call('hset', KEYS[1], ARGV[2], 1); " +
+                                "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+                                returnFencingToken("KEYS[4]", "ARGV[5]") +
+                            "end; " +
+                            reentrant +
+                            "return {0, 1};";
+            return this.evalAcquireAsync(script, keys, params, threadId, command);
+        }
+
+        String script = purge +
+                        "if (redis.call('exists', KEYS[1]) == 0) " +
+                        "then " +
+                            "local head = redis.call('zrange', KEYS[2], 0, 0)[1]; " +
+                            "if (head == nil or head == ARGV[2]) " +
+                            "then " +
+                                "redis.call('zrem', KEYS[2], ARGV[2]); " +
+                                "redis.call('zrem', KEYS[3], ARGV[2]); " +
+                                "redis.call('hset', KEYS[1], ARGV[2], 1); " +
+                                "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+                                returnFencingToken("KEYS[4]", "ARGV[5]") +
+                            "end; " +
+                        "end; " +
+                        reentrant +
+                        "if (redis.call('zscore', KEYS[2], ARGV[2]) == false) " +
+                        "then " +
+                            "local tail = redis.call('zrange', KEYS[2], -1, -1, 'WITHSCORES'); " +
+                            "local seq = 1; " +
+                            "if (tail[2]) then seq = tonumber(tail[2]) + 1; end; " +
+                            "redis.call('zadd', KEYS[2], seq, ARGV[2]); " +
+                        "end; " +
+                        "redis.call('zadd', KEYS[3], tonumber(ARGV[4]) + tonumber(ARGV[3]), ARGV[2]); " +
+                        "local ttl = redis.call('pttl', KEYS[1]); " +
+                        "local refresh = math.floor(tonumber(ARGV[3]) / 2); " +
+                        "if (ttl < 0 or ttl > refresh) then ttl = refresh; end; " +
+                        "return {0, ttl};";
+        return this.evalAcquireAsync(script, keys, params, threadId, command);
+    }
+
+    /**
+     * 放弃等待: 移出队列, 锁空闲时通知新的队首线程
+     */
+    @Override
+    protected RFuture<Void> acquireFailedAsync(long waitTime, TimeUnit unit, long threadId) {
+        String script = "redis.call('zrem', KEYS[2], ARGV[1]); " +
+                        "redis.call('zrem', KEYS[3], ARGV[1]); " +
+                        "if (redis.call('exists', KEYS[1]) == 0) " +
+                        "then " +
+                            "local head = redis.call('zrange', KEYS[2], 0, 0)[1]; " +
+                            "if (head) then redis.call('publish', KEYS[4] .. ':' .. head, ARGV[2]); end; " +
+                        "end; " +
+                        "return nil;";
+        List<Object> keys = Arrays.asList(this.getName(), this.getQueueName(), this.getTimeoutSetName(), this.getChannelName());
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_VOID, script, keys,
+                this.getLockName(threadId), LockPubSub.UNLOCK_MESSAGE);
+    }
+
+    @Override
+    protected RFuture<Boolean> unlockInnerAsync(long threadId) {
+        String script = "if (redis.call('hexists', KEYS[1], ARGV[3]) == 0) " +
+                        "   then return nil; " +
+                        "end; " +
+                        "local counter = redis.call('hincrby', KEYS[1], ARGV[3], -1); " +
+                        "if (counter > 0) " +
+                        "   then redis.call('pexpire', KEYS[1], ARGV[2]); " +
+                        "   return 0; " +
+                        "end; " +
+                        "redis.call('del', KEYS[1]); " +
+                        "local expired = redis.call('zrangebyscore', KEYS[3], '-inf', ARGV[4]); " +
+                        "for i = 1, #expired do " +
+                        "    redis.call('zrem', KEYS[2], expired[i]); " +
+                        "    redis.call('zrem', KEYS[3], expired[i]); " +
+                        "end; " +
+                        "local head = redis.call('zrange', KEYS[2], 0, 0)[1]; " +
+                        "if (head) then redis.call('publish', KEYS[4] .. ':' .. head, ARGV[1]); end; " +
+                        "return 1;";
+        List<Object> keys = Arrays.asList(this.getName(), this.getQueueName(), this.getTimeoutSetName(), this.getChannelName());
+        Object[] params = {LockPubSub.UNLOCK_MESSAGE, this.internalLockLeaseTime, this.getLockName(threadId), System.currentTimeMillis()};
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, script, keys, params);
+    }
+
+    @Override
+    public RFuture<Boolean> forceUnlockAsync() {
+        this.cancelExpirationRenewal(null);
+        String script = "if (redis.call('del', KEYS[1]) == 1) " +
+                        "then " +
+                            "local head = redis.call('zrange', KEYS[2], 0, 0)[1]; " +
+                            "if (head) then redis.call('publish', KEYS[3] .. ':' .. head, ARGV[1]); end; " +
+                        "return 1; " +
+                        "end; " +
+                        "return 0;";
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, script,
+                Arrays.asList(this.getName(), this.getQueueName(), this.getChannelName()), LockPubSub.UNLOCK_MESSAGE);
+    }
+
+}
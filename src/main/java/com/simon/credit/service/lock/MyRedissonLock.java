@@ -12,19 +12,37 @@ import org.redisson.command.CommandAsyncExecutor;
 import org.redisson.misc.RPromise;
 import org.redisson.misc.RedissonPromise;
 import org.redisson.pubsub.LockPubSub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class MyRedissonLock extends RedissonBaseLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MyRedissonLock.class);
+    /** 等待线程计数器的过期时间(毫秒), 每次登记等待线程时延长 */
+    private static final long WAITERS_EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    /** 释放锁脚本片段: 只在有等待线程时发布释放通知(KEYS[2]:通知频道, KEYS[3]:等待线程计数器) */
+    private static final String PUBLISH_IF_WAITING =
+            "local waiters = tonumber(redis.call('get', KEYS[3])); " +
+            "if (waiters ~= nil and waiters > 0) then redis.call('publish', KEYS[2], ARGV[1]); end; ";
+    /** 锁hash中保存持有者防护令牌的字段(与持有线程字段互不冲突) */
+    static final String FENCING_FIELD = "fencing";
+
     protected long internalLockLeaseTime;
     protected final LockPubSub pubSub;
     final CommandAsyncExecutor commandExecutor;
+    /** 重试策略, 为null时等待到持有者租约到期或收到释放通知 */
+    private LockRetryPolicy retryPolicy;
+    /** 加锁脚本发放的防护令牌(key: 持有锁的线程ID), 由调用方取出 */
+    private final ConcurrentMap<Long, Long> acquiredTokens = new ConcurrentHashMap<>();
 
     public MyRedissonLock(CommandAsyncExecutor commandExecutor, String name) {
         super(commandExecutor, name);
@@ -33,10 +51,157 @@ public class MyRedissonLock extends RedissonBaseLock {
         this.pubSub = commandExecutor.getConnectionManager().getSubscribeService().getLockPubSub();
     }
 
+    /**
+     * 设置重试策略: 限定两次加锁尝试之间的最长等待时间(收到释放通知时仍会提前重试), 同步与异步加锁均生效
+     * @param retryPolicy 重试策略
+     */
+    public void setRetryPolicy(LockRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
     String getChannelName() {
         return prefixName("redisson_lock__channel", this.getName());
     }
 
+    String getFencingName() {
+        return prefixName("redisson_lock__fencing", this.getName());
+    }
+
+    /**
+     * 等待线程计数器: 等待线程订阅释放通知后递增, 取消订阅时递减, 释放锁时只在计数大于0时发布通知
+     */
+    String getWaitersName() {
+        return prefixName("redisson_lock__waiters", this.getName());
+    }
+
+    /**
+     * 加锁脚本片段: 加锁成功后取得防护令牌并返回{1, 防护令牌}. 锁hash中已有令牌(重入)时沿用,
+     * 否则递增令牌计数器并保存到锁hash, 同一次持有期间令牌不变
+     * @param fencingKey 令牌计数器(如KEYS[2])
+     * @param fencingField 令牌字段(如ARGV[3])
+     */
+    static String returnFencingToken(String fencingKey, String fencingField) {
+        return "local token = redis.call('hget', KEYS[1], " + fencingField + "); " +
+               "if (token == false) " +
+               "then " +
+                   "token = redis.call('incr', " + fencingKey + "); " +
+                   "redis.call('hset', KEYS[1], " + fencingField + ", token); " +
+               "end; " +
+               "return {1, tonumber(token)}; ";
+    }
+
+    /**
+     * 取出指定线程最近一次加锁成功时由加锁脚本发放的防护令牌(不访问Redis)
+     * @param threadId 持有锁的线程ID
+     * @return 单调递增的防护令牌, 该线程未通过本实例加锁成功时返回null
+     */
+    public Long takeFencingToken(long threadId) {
+        return acquiredTokens.remove(threadId);
+    }
+
+    /**
+     * 获取防护令牌: 仅当指定线程仍持有锁时返回本次持有的令牌(与持有状态校验在同一脚本内原子执行)
+     * @param threadId 持有锁的线程ID
+     * @return 单调递增的防护令牌, 未持有锁时返回null
+     */
+    public Long fencingToken(long threadId) {
+        return this.get(this.fencingTokenAsync(threadId));
+    }
+
+    public RFuture<Long> fencingTokenAsync(long threadId) {
+        String script = "if (redis.call('hexists', KEYS[1], ARGV[1]) == 1) " +
+                        "then " +
+                            "local token = redis.call('hget', KEYS[1], ARGV[2]); " +
+                            "if (token == false) " +
+                            "then " +
+                                "token = redis.call('incr', KEYS[2]); " +
+                                "redis.call('hset', KEYS[1], ARGV[2], token); " +
+                            "end; " +
+                            "return tonumber(token); " +
+                        "end; " +
+                        "return nil;";
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_LONG, script,
+                Arrays.asList(this.getName(), this.getFencingName()), new Object[]{this.getLockName(threadId), FENCING_FIELD});
+    }
+
+    /**
+     * 续租一次: 仅当指定线程仍持有锁时将租约重置为leaseMillis
+     * @param leaseMillis 租约时间(毫秒)
+     * @param threadId 持有锁的线程ID
+     * @return 是否仍持有锁
+     */
+    public RFuture<Boolean> renewLeaseAsync(long leaseMillis, long threadId) {
+        String script = "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) " +
+                        "then " +
+                            "redis.call('pexpire', KEYS[1], ARGV[1]); " +
+                            "return 1; " +
+                        "end; " +
+                        "return 0;";
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, script,
+                Collections.singletonList(this.getName()), new Object[]{leaseMillis, this.getLockName(threadId)});
+    }
+
+    /**
+     * 持有锁超过指定时间后开始续租: 此后每隔leaseMillis/3将租约延长至leaseMillis, 取消或发现锁已不属于该线程时停止<br>
+     * 续租任务只属于本次持有, 租约由续租任务自身携带, 不修改锁实例的租约, 也不占用看门狗的续租登记
+     * @param delayMillis 开始续租前的延迟(毫秒), 应小于租约时间
+     * @param leaseMillis 续租的租约时间(毫秒)
+     * @param threadId 持有锁的线程ID
+     * @return 续租任务, 释放锁之前应取消
+     */
+    public LeaseRenewal renewExpirationAfter(long delayMillis, long leaseMillis, long threadId) {
+        LeaseRenewal renewal = new LeaseRenewal(leaseMillis, threadId);
+        renewal.schedule(delayMillis);
+        return renewal;
+    }
+
+    /**
+     * 单次持有的续租任务
+     */
+    public final class LeaseRenewal {
+        private final long leaseMillis;
+        private final long threadId;
+        /** 已取消(锁已释放或即将释放) */
+        private volatile boolean cancelled;
+        private volatile Timeout timeout;
+
+        private LeaseRenewal(long leaseMillis, long threadId) {
+            this.leaseMillis = leaseMillis;
+            this.threadId = threadId;
+        }
+
+        private void schedule(long delayMillis) {
+            timeout = commandExecutor.getConnectionManager().newTimeout(t -> {
+                if (cancelled) {
+                    return;
+                }
+                renewLeaseAsync(leaseMillis, threadId).onComplete((renewed, e) -> {
+                    if (cancelled) {
+                        return;
+                    }
+                    if (e != null) {
+                        LOGGER.warn("renew lock {} failed: {}", getName(), e.getMessage());
+                    } else if (!renewed) {
+                        // 锁已不属于该线程
+                        return;
+                    }
+                    schedule(leaseMillis / 3);
+                });
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 停止续租: 之后不再发出续租命令, 已发出的续租在锁释放后因持有者校验失败而不生效
+         */
+        public void cancel() {
+            cancelled = true;
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
     public void lock() {
         try {
             this.lock(-1L, null, false);
@@ -147,18 +312,44 @@ public class MyRedissonLock extends RedissonBaseLock {
                         "then " +
                             "redis.call('hincrby', KEYS[1], ARGV[2], 1); " +
                             "redis.call('pexpire', KEYS[1], ARGV[1]); " +
-                        "return nil; " +
+                            returnFencingToken("KEYS[2]", "ARGV[3]") +
                         "end; " +
                         "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) " +
                         "then " +
                             "redis.call('hincrby', KEYS[1], ARGV[2], 1); " +
                             "redis.call('pexpire', KEYS[1], ARGV[1]); " +
-                        "return nil; " +
+                            returnFencingToken("KEYS[2]", "ARGV[3]") +
                         "end; " +
-                        "return redis.call('pttl', KEYS[1]);";
-        List<Object> keys = Collections.singletonList(this.getName());
-        Object[] params = {this.internalLockLeaseTime, this.getLockName(threadId)};
-        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, command, script, keys, params);
+                        "return {0, redis.call('pttl', KEYS[1])};";
+        List<Object> keys = Arrays.asList(this.getName(), this.getFencingName());
+        Object[] params = {this.internalLockLeaseTime, this.getLockName(threadId), FENCING_FIELD};
+        return this.evalAcquireAsync(script, keys, params, threadId, command);
+    }
+
+    /**
+     * 执行加锁脚本: 脚本成功返回{1, 防护令牌}, 失败返回{0, 剩余租约}; 成功时记录防护令牌,
+     * 再按command转换为Redisson的加锁结果(EVAL_LONG: 成功为null, 失败为剩余租约; EVAL_NULL_BOOLEAN: 是否成功)
+     */
+    @SuppressWarnings("unchecked")
+    <T> RFuture<T> evalAcquireAsync(String script, List<Object> keys, Object[] params, long threadId, RedisStrictCommand<T> command) {
+        RPromise<T> result = new RedissonPromise<>();
+        RFuture<List<Object>> reply = this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_LIST, script, keys, params);
+        reply.onComplete((values, e) -> {
+            if (e != null) {
+                result.tryFailure(e);
+                return;
+            }
+            boolean acquired = Long.valueOf(1L).equals(values.get(0));
+            if (acquired) {
+                acquiredTokens.put(threadId, (Long) values.get(1));
+            }
+            if (command == RedisCommands.EVAL_NULL_BOOLEAN) {
+                result.trySuccess((T) Boolean.valueOf(acquired));
+            } else {
+                result.trySuccess(acquired ? null : (T) values.get(1));
+            }
+        });
+        return result;
     }
 
     /**
@@ -206,6 +397,8 @@ public class MyRedissonLock extends RedissonBaseLock {
                 return false;
             }
 
+            int attempt = 0;
+            long delay = 0L;
             do {
                 long currentTime = System.currentTimeMillis();
                 timeToLive = this.tryAcquire(waitTime, leaseTime, unit, threadId);
@@ -220,7 +413,10 @@ public class MyRedissonLock extends RedissonBaseLock {
                 }
 
                 currentTime = System.currentTimeMillis();
-                if (timeToLive >= 0L && timeToLive < time) {
+                if (retryPolicy != null) {
+                    delay = retryPolicy.nextDelayMillis(++attempt, delay, timeToLive);
+                    subscribeFuture.getNow().getLatch().tryAcquire(Math.min(delay, time), TimeUnit.MILLISECONDS);
+                } else if (timeToLive >= 0L && timeToLive < time) {
                     subscribeFuture.getNow().getLatch().tryAcquire(timeToLive, TimeUnit.MILLISECONDS);
                 } else {
                     subscribeFuture.getNow().getLatch().tryAcquire(time, TimeUnit.MILLISECONDS);
@@ -237,14 +433,59 @@ public class MyRedissonLock extends RedissonBaseLock {
         return false;
     }
 
+    /**
+     * 订阅释放通知并登记为等待线程: 登记完成后调用方才会重试加锁, 登记之后的释放一定会发布通知,
+     * 登记之前的释放由重试加锁发现
+     */
     protected RFuture<RedissonLockEntry> subscribe(long threadId) {
-        return this.pubSub.subscribe(this.getEntryName(), this.getChannelName());
+        RPromise<RedissonLockEntry> result = new RedissonPromise<>();
+        this.pubSub.subscribe(this.getEntryName(), this.getChannelName()).onComplete((entry, e) -> {
+            if (e != null) {
+                result.tryFailure(e);
+                return;
+            }
+            this.registerWaiterAsync().onComplete((count, ex) -> {
+                if (ex != null) {
+                    this.pubSub.unsubscribe(entry, this.getEntryName(), this.getChannelName());
+                    result.tryFailure(ex);
+                } else if (!result.trySuccess(entry)) {
+                    // 调用方已放弃等待
+                    this.unregisterWaiterAsync();
+                    this.pubSub.unsubscribe(entry, this.getEntryName(), this.getChannelName());
+                }
+            });
+        });
+        return result;
     }
 
     protected void unsubscribe(RFuture<RedissonLockEntry> future, long threadId) {
+        this.unregisterWaiterAsync();
         this.pubSub.unsubscribe(future.getNow(), this.getEntryName(), this.getChannelName());
     }
 
+    /**
+     * 等待线程计数加1, 计数器带有较长的过期时间, 进程崩溃未递减的计数最终被清除
+     */
+    private RFuture<Long> registerWaiterAsync() {
+        String script = "local count = redis.call('incr', KEYS[1]); " +
+                        "if (redis.call('pttl', KEYS[1]) < tonumber(ARGV[1])) " +
+                        "   then redis.call('pexpire', KEYS[1], ARGV[1]); " +
+                        "end; " +
+                        "return count;";
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_LONG, script,
+                Collections.singletonList(this.getWaitersName()), WAITERS_EXPIRE_MILLIS);
+    }
+
+    private RFuture<Long> unregisterWaiterAsync() {
+        String script = "local count = redis.call('decr', KEYS[1]); " +
+                        "if (count <= 0) " +
+                        "   then redis.call('del', KEYS[1]); " +
+                        "end; " +
+                        "return count;";
+        return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_LONG, script,
+                Collections.singletonList(this.getWaitersName()));
+    }
+
     public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
         return this.tryLock(waitTime, -1L, unit);
     }
@@ -268,12 +509,12 @@ public class MyRedissonLock extends RedissonBaseLock {
     public RFuture<Boolean> forceUnlockAsync() {
         this.cancelExpirationRenewal(null);
         String script = "if  (redis.call('del', KEYS[1]) == 1) " +
-                        "then redis.call('publish', KEYS[2], ARGV[1]); " +
+                        "then " + PUBLISH_IF_WAITING +
                         "return 1 " +
                         "else return 0 " +
                         "end";
         return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, script,
-                Arrays.asList(this.getName(), this.getChannelName()), new Object[]{LockPubSub.UNLOCK_MESSAGE});
+                Arrays.asList(this.getName(), this.getChannelName(), this.getWaitersName()), new Object[]{LockPubSub.UNLOCK_MESSAGE});
     }
 
     protected RFuture<Boolean> unlockInnerAsync(long threadId) {
@@ -285,11 +526,11 @@ public class MyRedissonLock extends RedissonBaseLock {
                         "   then redis.call('pexpire', KEYS[1], ARGV[2]); " +
                         "   return 0; " +
                         "else redis.call('del', KEYS[1]); " +
-                        "   redis.call('publish', KEYS[2], ARGV[1]); " +
+                        "   " + PUBLISH_IF_WAITING +
                         "   return 1; " +
                         "end; " +
                         "return nil;";
-        List<Object> keys = Arrays.asList(this.getName(), this.getChannelName());
+        List<Object> keys = Arrays.asList(this.getName(), this.getChannelName(), this.getWaitersName());
         Object[] params = {LockPubSub.UNLOCK_MESSAGE, this.internalLockLeaseTime, this.getLockName(threadId)};
         return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, script, keys, params);
     }
@@ -388,6 +629,7 @@ public class MyRedissonLock extends RedissonBaseLock {
     public RFuture<Boolean> tryLockAsync(long waitTime, long leaseTime, TimeUnit unit, long currentThreadId) {
         RPromise<Boolean> result = new RedissonPromise();
         AtomicLong time = new AtomicLong(unit.toMillis(waitTime));
+        RetryBackoff backoff = new RetryBackoff(retryPolicy);
         long currentTime = System.currentTimeMillis();
         RFuture<Long> ttlFuture = this.tryAcquireAsync(waitTime, leaseTime, unit, currentThreadId);
         ttlFuture.onComplete((ttl, e) -> {
@@ -417,7 +659,7 @@ public class MyRedissonLock extends RedissonBaseLock {
 
                             long elapsed = System.currentTimeMillis() - current;
                             time.addAndGet(-elapsed);
-                            this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, result, currentThreadId);
+                            this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, backoff, result, currentThreadId);
                         }
                     });
                     if (!subscribeFuture.isDone()) {
@@ -446,7 +688,7 @@ public class MyRedissonLock extends RedissonBaseLock {
     }
 
     private void tryLockAsync(AtomicLong time, long waitTime, long leaseTime, TimeUnit unit,
-        RFuture<RedissonLockEntry> subscribeFuture, RPromise<Boolean> result, long currentThreadId) {
+        RFuture<RedissonLockEntry> subscribeFuture, RetryBackoff backoff, RPromise<Boolean> result, long currentThreadId) {
 
         if (result.isDone()) {
             this.unsubscribe(subscribeFuture, currentThreadId);
@@ -475,7 +717,7 @@ public class MyRedissonLock extends RedissonBaseLock {
                         final long current = System.currentTimeMillis();
                         final RedissonLockEntry entry = subscribeFuture.getNow();
                         if (entry.getLatch().tryAcquire()) {
-                            this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, result, currentThreadId);
+                            this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, backoff, result, currentThreadId);
                         } else {
                             AtomicBoolean executed = new AtomicBoolean();
                             AtomicReference<Timeout> futureRef = new AtomicReference();
@@ -487,20 +729,17 @@ public class MyRedissonLock extends RedissonBaseLock {
 
                                 long elapsed = System.currentTimeMillis() - current;
                                 time.addAndGet(-elapsed);
-                                this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, result, currentThreadId);
+                                this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, backoff, result, currentThreadId);
                             };
                             entry.addListener(listener);
-                            long t = time.get();
-                            if (ttl >= 0L && ttl < time.get()) {
-                                t = ttl;
-                            }
+                            long t = backoff.nextWaitMillis(ttl, time.get());
 
                             if (!executed.get()) {
                                 Timeout scheduledFuture = this.commandExecutor.getConnectionManager().newTimeout(timeout -> {
                                     if (entry.removeListener(listener)) {
                                         long elapsed = System.currentTimeMillis() - current;
                                         time.addAndGet(-elapsed);
-                                        MyRedissonLock.this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, result, currentThreadId);
+                                        MyRedissonLock.this.tryLockAsync(time, waitTime, leaseTime, unit, subscribeFuture, backoff, result, currentThreadId);
                                     }
                                 }, t, TimeUnit.MILLISECONDS);
                                 futureRef.set(scheduledFuture);
@@ -512,4 +751,30 @@ public class MyRedissonLock extends RedissonBaseLock {
         }
     }
 
+    /**
+     * 一次异步加锁的重试间隔: 有重试策略时按策略计算, 否则等待到持有者租约到期(各次尝试依次进行, 不会并发访问)
+     */
+    private static final class RetryBackoff {
+        private final LockRetryPolicy policy;
+        private int attempt;
+        private long delay;
+
+        RetryBackoff(LockRetryPolicy policy) {
+            this.policy = policy;
+        }
+
+        /**
+         * @param ttl 持有者剩余租约(毫秒), 未知时为负数
+         * @param remaining 剩余等待时间(毫秒)
+         * @return 下一次尝试之前的最长等待时间(毫秒)
+         */
+        long nextWaitMillis(long ttl, long remaining) {
+            if (policy == null) {
+                return ttl >= 0L && ttl < remaining ? ttl : remaining;
+            }
+            delay = policy.nextDelayMillis(++attempt, delay, ttl);
+            return Math.min(delay, remaining);
+        }
+    }
+
 }
\ No newline at end of file
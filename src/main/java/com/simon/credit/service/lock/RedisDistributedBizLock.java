@@ -2,12 +2,24 @@ package com.simon.credit.service.lock;
 
 import com.simon.credit.service.redis.RedisDistributedLock;
 import org.redisson.Redisson;
-import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.command.CommandAsyncExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
 
 /**
  * Redis分布式锁(Redisson实现方式)
@@ -16,27 +28,211 @@ import java.util.concurrent.TimeUnit;
 public class RedisDistributedBizLock implements DistributedBizLock {
 	private static final Logger LOGGER = LoggerFactory.getLogger(RedisDistributedLock.class);
 
+	/** 锁租约时间(秒, 异步加锁及执行时长样本不足时使用) */
+	private static final long LOCK_LEASE_SECONDS = 10L;
+
+	/** 租约按执行时长的该分位数计算 */
+	private static final double LEASE_PERCENTILE = 0.99D;
+
+	/** 最多统计执行时长的锁名称数, 超出后共用一个直方图 */
+	private static final int MAX_TRACKED_LOCK_NAMES = 1024;
+
+	/** 异步加锁的持有者标识序列(取负数, 不与线程ID冲突) */
+	private static final AtomicLong OWNER_SEQUENCE = new AtomicLong();
+
+	/** 加锁意向通知主题(消息: 发送方标识 + 锁名称) */
+	private static final String INTEREST_TOPIC = "redisson_lock__interest";
+
+	/** 最多保留的锁名称数, 超出后按非保留方式加锁 */
+	private static final int MAX_RETAINED_LOCK_NAMES = 1024;
+
 	@Autowired
 	private Redisson redisson;
 
+	/** 是否使用公平锁(默认非公平) */
+	private boolean fairLock;
+
+	/** 租约安全系数: 租约 = 执行时长p99 * 安全系数 */
+	private double leaseSafetyFactor = 2.0D;
+
+	/** 最短租约(毫秒) */
+	private long minLeaseMillis = 1000L;
+
+	/** 最长租约(毫秒), 执行时长超过租约的一半时由看门狗续租 */
+	private long maxLeaseMillis = TimeUnit.SECONDS.toMillis(LOCK_LEASE_SECONDS);
+
+	/** 各锁名称的业务执行时长 */
+	private final ConcurrentMap<String, LockDurationHistogram> durations = new ConcurrentHashMap<>();
+
+	/** 超出统计数量的锁名称共用的执行时长 */
+	private final LockDurationHistogram overflowDurations = new LockDurationHistogram();
+
+	/** 异步加锁的业务执行线程池 */
+	private Executor bizExecutor = LockBizExecutors.DEFAULT_EXECUTOR;
+
+	/** 锁保留时间(毫秒), 0表示不保留 */
+	private long retentionMillis;
+
+	/** 保留持有的锁(key: 锁名称) */
+	private final ConcurrentMap<String, RetainedBizLock> retainedLocks = new ConcurrentHashMap<>();
+
+	/** 本实例的加锁意向发送方标识(忽略自己发出的意向) */
+	private final String interestSource = UUID.randomUUID().toString();
+
+	private final AtomicBoolean interestSubscribed = new AtomicBoolean();
+
+	/** 加锁业务批量执行 */
+	private final LockBizBatcher batcher = new LockBizBatcher(this);
+
+	/**
+	 * 设置是否使用公平锁: 等待线程按先来后到排队, 释放锁时只唤醒队首, 高并发下等待时间的长尾更可控
+	 * @param fairLock true:公平锁; false:非公平锁
+	 */
+	public void setFairLock(boolean fairLock) {
+		this.fairLock = fairLock;
+	}
+
+	/**
+	 * 设置租约安全系数(默认2.0)
+	 * @param leaseSafetyFactor 租约 = 执行时长p99 * 安全系数
+	 */
+	public void setLeaseSafetyFactor(double leaseSafetyFactor) {
+		if (leaseSafetyFactor < 1.0D) {
+			throw new IllegalArgumentException("leaseSafetyFactor must not be less than 1.");
+		}
+		this.leaseSafetyFactor = leaseSafetyFactor;
+	}
+
+	/**
+	 * 设置租约范围(默认1~10秒): 持有者崩溃后锁最多保留最长租约
+	 * @param minLeaseMillis 最短租约(毫秒)
+	 * @param maxLeaseMillis 最长租约(毫秒)
+	 */
+	public void setLeaseRange(long minLeaseMillis, long maxLeaseMillis) {
+		if (minLeaseMillis <= 0 || maxLeaseMillis < minLeaseMillis) {
+			throw new IllegalArgumentException("invalid lease range.");
+		}
+		this.minLeaseMillis = minLeaseMillis;
+		this.maxLeaseMillis = maxLeaseMillis;
+	}
+
+	/**
+	 * 设置异步加锁的业务执行线程池(默认JDK21+使用虚拟线程, 否则使用有界的守护线程池)
+	 */
+	public void setBizExecutor(Executor bizExecutor) {
+		if (bizExecutor == null) {
+			throw new IllegalArgumentException("bizExecutor must not be null.");
+		}
+		this.bizExecutor = bizExecutor;
+	}
+
+	/**
+	 * 设置锁保留时间(默认0, 不保留): 同一节点反复获取同一把锁时, 业务完成后继续持有锁一段时间,
+	 * 期间本节点的后续加锁不访问Redis; 其它节点等待该锁时会通知本节点立即释放.
+	 * 未开启保留的节点加锁不发出通知, 最多多等待一个保留时间. 只作用于同步加锁
+	 * @param retentionMillis 保留时间(毫秒)
+	 */
+	public void setRetentionMillis(long retentionMillis) {
+		if (retentionMillis < 0) {
+			throw new IllegalArgumentException("retentionMillis must not be negative.");
+		}
+		this.retentionMillis = retentionMillis;
+	}
+
+	/**
+	 * 设置批量执行的上限(默认每批64个业务, 持有锁100毫秒)
+	 * @param maxBatchSize 单批最多执行的业务数
+	 * @param maxHoldMillis 单批最长持有锁时间(毫秒)
+	 */
+	public void setBatchLimits(int maxBatchSize, long maxHoldMillis) {
+		batcher.setLimits(maxBatchSize, maxHoldMillis);
+	}
+
 	@Override
 	public void lock(String lockName, LockBiz lockBiz, long maxWait, TimeUnit waitUnit) {
-		// RLock lock = redisson.getLock(lockName);
-		RLock lock = new MyRedissonLock(redisson.getConnectionManager().getCommandExecutor(), lockName);
+		lock(lockName, (FencedLockBiz) lockBiz, maxWait, waitUnit);
+	}
+
+	@Override
+	public void lock(String lockName, LockBiz lockBiz) {
+		lock(lockName, lockBiz, LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public void lock(String lockName, FencedLockBiz lockBiz, long maxWait, TimeUnit waitUnit) {
+		try {
+			execute(lockName, fencingToken -> {
+				lockBiz.execute(fencingToken);
+				return null;
+			}, maxWait, waitUnit);
+		} catch (TimeoutException e) {
+			// 加锁失败已记录日志, 无返回值的业务保持只记录日志的约定
+		}
+	}
+
+	@Override
+	public void lock(String lockName, FencedLockBiz lockBiz) {
+		lock(lockName, lockBiz, LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public <T> T lock(String lockName, Supplier<T> biz, long maxWait, TimeUnit waitUnit) throws TimeoutException {
+		return execute(lockName, fencingToken -> biz.get(), maxWait, waitUnit);
+	}
+
+	@Override
+	public <T> T lock(String lockName, Supplier<T> biz) throws TimeoutException {
+		return lock(lockName, biz, LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 加锁执行业务: 租约按该锁名称业务执行时长的p99乘以安全系数自适应计算,
+	 * 执行时间超过租约的一半仍未结束时转为看门狗续租, 长任务不会中途丢锁
+	 * @throws TimeoutException 等待超时未加锁成功
+	 */
+	<T> T execute(String lockName, LongFunction<T> biz, long maxWait, TimeUnit waitUnit) throws TimeoutException {
+		if (retentionMillis > 0) {
+			RetainedBizLock retained = retainedOf(lockName);
+			if (retained != null) {
+				return executeRetained(lockName, retained, biz, maxWait, waitUnit);
+			}
+		}
+
+		MyRedissonLock lock = newLock(lockName);
+		long leaseMillis = leaseMillis(lockName);
+		long threadId = Thread.currentThread().getId();
+		MyRedissonLock.LeaseRenewal renewal = null;
 
 		try {
 			// try to acquire lock(long waitTime, long leaseTime, TimeUnit unit)
-			boolean acquireLock = lock.tryLock(15, 10, TimeUnit.SECONDS);
+			boolean acquireLock = lock.tryLock(waitUnit.toMillis(maxWait), leaseMillis, TimeUnit.MILLISECONDS);
 			if (acquireLock) {
 				LOGGER.info(Thread.currentThread().getName() + " hold distributed lock");
-				lockBiz.execute();
+				renewal = lock.renewExpirationAfter(leaseMillis / 2, leaseMillis, threadId);
+				// 防护令牌由加锁脚本随加锁结果一并返回
+				Long fencingToken = lock.takeFencingToken(threadId);
+				if (fencingToken == null) {
+					throw new IllegalStateException("distributed lock " + lockName + " acquired without fencing token");
+				}
+				long start = System.nanoTime();
+				try {
+					return biz.apply(fencingToken);
+				} finally {
+					durationsOf(lockName).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				}
 			} else {
 				LOGGER.error(Thread.currentThread().getName() + " hasn't acquired distributed lock");
+				throw new TimeoutException("hasn't acquired distributed lock " + lockName);
 			}
+		} catch (TimeoutException e) {
+			throw e;
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage(), e);
 			throw new RuntimeException("分布式锁业务执行出错", e);
 		} finally {
+			if (renewal != null) {
+				renewal.cancel();
+			}
 			if (lock.isLocked() && lock.isHeldByCurrentThread()) {
 				lock.unlock();
 				LOGGER.info(Thread.currentThread().getName() + " released distributed lock");
@@ -44,9 +240,226 @@ public class RedisDistributedBizLock implements DistributedBizLock {
 		}
 	}
 
+	/**
+	 * 提交业务批量执行: 同一锁名称在本节点排队的业务在一次加锁内依次执行(在业务线程池执行)
+	 * @param lockName 锁名称
+	 * @param lockBiz 加锁业务
+	 * @return 业务完成结果(释放锁之后完成), 加锁失败时以TimeoutException异常完成
+	 */
+	public CompletableFuture<Void> submit(String lockName, LockBiz lockBiz) {
+		return batcher.submit(lockName, lockBiz, bizExecutor);
+	}
+
+	/**
+	 * 提交需要防护令牌的业务批量执行(同一批次的业务共用一次加锁的防护令牌)
+	 * @param lockName 锁名称
+	 * @param lockBiz 加锁业务
+	 * @return 业务完成结果(释放锁之后完成), 加锁失败时以TimeoutException异常完成
+	 */
+	public CompletableFuture<Void> submit(String lockName, FencedLockBiz lockBiz) {
+		return batcher.submit(lockName, lockBiz, bizExecutor);
+	}
+
+	/**
+	 * 保留方式加锁执行业务
+	 */
+	private <T> T executeRetained(String lockName, RetainedBizLock retained, LongFunction<T> biz, long maxWait, TimeUnit waitUnit)
+			throws TimeoutException {
+		Long fencingToken;
+		try {
+			fencingToken = retained.acquire(maxWait, waitUnit, leaseMillis(lockName), () -> signalInterest(lockName));
+		} catch (Exception e) {
+			LOGGER.error(e.getMessage(), e);
+			throw new RuntimeException("分布式锁业务执行出错", e);
+		}
+		if (fencingToken == null) {
+			LOGGER.error(Thread.currentThread().getName() + " hasn't acquired distributed lock");
+			throw new TimeoutException("hasn't acquired distributed lock " + lockName);
+		}
+
+		long start = System.nanoTime();
+		try {
+			return biz.apply(fencingToken);
+		} catch (Exception e) {
+			LOGGER.error(e.getMessage(), e);
+			throw new RuntimeException("分布式锁业务执行出错", e);
+		} finally {
+			durationsOf(lockName).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			retained.release(retentionMillis);
+		}
+	}
+
+	private RetainedBizLock retainedOf(String lockName) {
+		RetainedBizLock retained = retainedLocks.get(lockName);
+		if (retained != null) {
+			return retained;
+		}
+		if (retainedLocks.size() >= MAX_RETAINED_LOCK_NAMES) {
+			return null;
+		}
+		subscribeInterest();
+		return retainedLocks.computeIfAbsent(lockName,
+				name -> new RetainedBizLock(name, newLock(name), -OWNER_SEQUENCE.incrementAndGet()));
+	}
+
+	private RTopic interestTopic() {
+		return redisson.getTopic(INTEREST_TOPIC, StringCodec.INSTANCE);
+	}
+
+	private void signalInterest(String lockName) {
+		interestTopic().publishAsync(interestSource + lockName);
+	}
+
+	private void subscribeInterest() {
+		if (!interestSubscribed.compareAndSet(false, true)) {
+			return;
+		}
+		interestTopic().addListener(String.class, (channel, message) -> {
+			if (message.length() <= interestSource.length() || message.startsWith(interestSource)) {
+				return;
+			}
+			// 发送方标识为定长UUID
+			RetainedBizLock retained = retainedLocks.get(message.substring(interestSource.length()));
+			if (retained != null) {
+				retained.onRemoteInterest();
+			}
+		});
+	}
+
+	/**
+	 * 异步加锁执行业务: 加锁使用合成的持有者标识, 等待期间不占用线程; 业务在业务线程池执行,
+	 * 结束后由执行业务的线程按持有者标识释放锁, 释放完成后才完成返回结果.
+	 * 租约及看门狗续租与同步加锁相同
+	 */
 	@Override
-	public void lock(String lockName, LockBiz lockBiz) {
-		lock(lockName, lockBiz, LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	public <T> CompletableFuture<T> lockAsync(String lockName, Supplier<T> biz, long maxWait, TimeUnit waitUnit) {
+		MyRedissonLock lock = newLock(lockName);
+		long leaseMillis = leaseMillis(lockName);
+		long ownerId = -OWNER_SEQUENCE.incrementAndGet();
+		CompletableFuture<T> result = new CompletableFuture<>();
+
+		lock.tryLockAsync(waitUnit.toMillis(maxWait), leaseMillis, TimeUnit.MILLISECONDS, ownerId).onComplete((acquired, e) -> {
+			if (e != null) {
+				result.completeExceptionally(e);
+				return;
+			}
+			if (!acquired) {
+				LOGGER.error(lockName + " hasn't acquired distributed lock");
+				result.completeExceptionally(new TimeoutException("hasn't acquired distributed lock " + lockName));
+				return;
+			}
+
+			MyRedissonLock.LeaseRenewal renewal = lock.renewExpirationAfter(leaseMillis / 2, leaseMillis, ownerId);
+			if (lock.takeFencingToken(ownerId) == null) {
+				IllegalStateException missing = new IllegalStateException("distributed lock " + lockName + " acquired without fencing token");
+				releaseAsync(lock, ownerId, renewal).whenComplete((v, unlockEx) -> result.completeExceptionally(missing));
+				return;
+			}
+			try {
+				bizExecutor.execute(() -> executeAsync(lockName, lock, ownerId, renewal, biz, result));
+			} catch (RuntimeException rejected) {
+				releaseAsync(lock, ownerId, renewal).whenComplete((v, unlockEx) -> result.completeExceptionally(rejected));
+			}
+		});
+		return result;
+	}
+
+	@Override
+	public <T> CompletableFuture<T> lockAsync(String lockName, Supplier<T> biz) {
+		return lockAsync(lockName, biz, LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	private <T> void executeAsync(String lockName, MyRedissonLock lock, long ownerId, MyRedissonLock.LeaseRenewal renewal,
+			Supplier<T> biz, CompletableFuture<T> result) {
+		T value = null;
+		Throwable failure = null;
+		long start = System.nanoTime();
+		try {
+			value = biz.get();
+		} catch (Throwable e) {
+			LOGGER.error(e.getMessage(), e);
+			failure = e;
+		} finally {
+			durationsOf(lockName).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+
+		T bizValue = value;
+		Throwable bizFailure = failure;
+		releaseAsync(lock, ownerId, renewal).whenComplete((v, unlockEx) -> {
+			if (bizFailure != null) {
+				result.completeExceptionally(bizFailure);
+			} else {
+				result.complete(bizValue);
+			}
+		});
+	}
+
+	/**
+	 * 按持有者标识释放锁(可在任意线程调用), 释放失败时锁在租约到期后自动失效
+	 */
+	private CompletableFuture<Void> releaseAsync(MyRedissonLock lock, long ownerId, MyRedissonLock.LeaseRenewal renewal) {
+		renewal.cancel();
+		return lock.unlockAsync(ownerId).toCompletableFuture().handle((v, e) -> {
+			if (e != null) {
+				LOGGER.error("release distributed lock " + lock.getName() + " failed", e);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 异步加锁(基于MyRedissonLock的RFuture方法, 等待期间由释放通知与定时器驱动, 不占用线程)
+	 * @param lockName 锁名称
+	 * @param ownerId 持有者标识, 释放锁时须使用同一标识(可在任意线程释放)
+	 * @param maxWait 最大等待时间
+	 * @param waitUnit 最大等待时间单位
+	 * @return true:加锁成功; false:加锁失败
+	 */
+	public CompletableFuture<Boolean> tryLockAsync(String lockName, long ownerId, long maxWait, TimeUnit waitUnit) {
+		return newLock(lockName).tryLockAsync(waitUnit.toMillis(maxWait), TimeUnit.SECONDS.toMillis(LOCK_LEASE_SECONDS),
+				TimeUnit.MILLISECONDS, ownerId).toCompletableFuture();
+	}
+
+	/**
+	 * 异步释放锁
+	 * @param lockName 锁名称
+	 * @param ownerId 加锁时使用的持有者标识
+	 */
+	public CompletableFuture<Void> releaseAsync(String lockName, long ownerId) {
+		return newLock(lockName).unlockAsync(ownerId).toCompletableFuture();
+	}
+
+	/**
+	 * 计算租约: 执行时长样本不足时使用默认租约
+	 */
+	long leaseMillis(String lockName) {
+		LockDurationHistogram histogram = durations.get(lockName);
+		long percentile = (histogram != null ? histogram : overflowDurations).percentile(LEASE_PERCENTILE);
+		if (percentile < 0) {
+			return TimeUnit.SECONDS.toMillis(LOCK_LEASE_SECONDS);
+		}
+		long leaseMillis = (long) Math.ceil(percentile * leaseSafetyFactor);
+		return Math.min(Math.max(leaseMillis, minLeaseMillis), maxLeaseMillis);
+	}
+
+	private LockDurationHistogram durationsOf(String lockName) {
+		LockDurationHistogram histogram = durations.get(lockName);
+		if (histogram != null) {
+			return histogram;
+		}
+		if (durations.size() >= MAX_TRACKED_LOCK_NAMES) {
+			return overflowDurations;
+		}
+		return durations.computeIfAbsent(lockName, name -> new LockDurationHistogram());
+	}
+
+	private MyRedissonLock newLock(String lockName) {
+		// RLock lock = redisson.getLock(lockName);
+		CommandAsyncExecutor commandExecutor = redisson.getConnectionManager().getCommandExecutor();
+		MyRedissonLock lock = fairLock ? new MyRedissonFairLock(commandExecutor, lockName) : new MyRedissonLock(commandExecutor, lockName);
+		// 未注册重试策略时保持原有行为: 等待释放通知或持有者租约到期
+		lock.setRetryPolicy(LockRetryPolicies.lookup(lockName));
+		return lock;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.simon.credit.service.lock;
+
+import io.netty.util.Timeout;
+import org.redisson.api.RFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 保留持有的分布式锁(偏向锁)<br>
+ * 业务执行完成后本节点继续持有Redis锁一段保留时间, 期间本节点的下一个加锁请求直接获得锁, 不访问Redis;
+ * 其它节点等待该锁时发出意向通知, 本节点收到后在当前业务结束时(空闲时立即)释放锁, 并在交接窗口内让出锁,
+ * 直到其它节点取得锁或窗口结束后本节点才重新加锁.
+ * 保留期间每隔三分之一租约续租一次, 续租发现锁已丢失或剩余租约不足时复用前先向Redis确认, 连续复用期间防护令牌保持不变<br>
+ * 本节点内的加锁请求按先来后到由本地锁排队, 远程锁以合成的持有者标识持有, 可由任意线程释放
+ * @author XUZIMING 2026-10-18
+ */
+final class RetainedBizLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetainedBizLock.class);
+
+    /** 让出锁后等待其它节点接手的最长时间(毫秒) */
+    private static final long HAND_OFF_MILLIS = 200L;
+
+    private final String lockName;
+
+    private final MyRedissonLock lock;
+
+    /** 远程锁的持有者标识 */
+    private final long ownerId;
+
+    /** 本节点内的加锁排队 */
+    private final ReentrantLock local = new ReentrantLock(true);
+
+    /** 是否持有远程锁(以下字段由本地锁保护) */
+    private boolean held;
+
+    private long fencingToken;
+
+    /** 远程锁租约(毫秒) */
+    private long leaseMillis;
+
+    /** 续租定时任务(由续租任务自身重新安排) */
+    private volatile Timeout renewal;
+
+    /** 保留到期释放定时任务 */
+    private Timeout releaseTask;
+
+    /** 最近一次远程解锁, 同一持有者标识重新加锁前须等待其完成 */
+    private RFuture<Void> pendingUnlock;
+
+    /** 让出锁的交接截止时间(System.nanoTime), 0表示没有交接 */
+    private long handOffDeadlineNanos;
+
+    /** 续租代次: 每次释放远程锁时递增, 旧代次的续租任务随之停止 */
+    private final AtomicLong renewalGeneration = new AtomicLong();
+
+    /** 远程锁租约到期时间的下限(System.nanoTime), 加锁或续租成功时更新 */
+    private volatile long leaseDeadlineNanos;
+
+    /** 续租发现远程锁已不属于本节点 */
+    private volatile boolean lost;
+
+    /** 是否收到其它节点的加锁意向 */
+    private volatile boolean revoked;
+
+    RetainedBizLock(String lockName, MyRedissonLock lock, long ownerId) {
+        this.lockName = lockName;
+        this.lock = lock;
+        this.ownerId = ownerId;
+    }
+
+    /**
+     * 加锁: 仍持有远程锁时直接返回, 否则向Redis加锁(首次尝试失败时通知持有者)
+     * @param maxWait 最大等待时间
+     * @param waitUnit 最大等待时间单位
+     * @param leaseMillis 远程锁租约(毫秒)
+     * @param signalInterest 通知其它节点释放保留的锁
+     * @return 防护令牌, 加锁失败时返回null
+     */
+    Long acquire(long maxWait, TimeUnit waitUnit, long leaseMillis, Runnable signalInterest) throws Exception {
+        long deadline = System.nanoTime() + waitUnit.toNanos(maxWait);
+        if (!local.tryLock(maxWait, waitUnit)) {
+            return null;
+        }
+
+        boolean acquired = false;
+        try {
+            cancelRelease();
+            if (held && revoked) {
+                releaseRemote(true);
+            } else if (held && !verifyLease()) {
+                LOGGER.warn("node lost distributed lock {}", lockName);
+                clearHeld();
+            }
+            if (!held) {
+                if (!awaitUnlock(deadline)) {
+                    return null;
+                }
+                awaitHandOff(deadline);
+                long start = System.nanoTime();
+                if (!lock.tryLockAsync(0L, leaseMillis, TimeUnit.MILLISECONDS, ownerId).get()) {
+                    signalInterest.run();
+                    start = System.nanoTime();
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - start);
+                    if (remaining <= 0 || !lock.tryLockAsync(remaining, leaseMillis, TimeUnit.MILLISECONDS, ownerId).get()) {
+                        return null;
+                    }
+                }
+                held = true;
+                revoked = false;
+                lost = false;
+                this.leaseMillis = leaseMillis;
+                leaseDeadlineNanos = start + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+                scheduleRenewal(renewalGeneration.get(), leaseMillis);
+                Long token = lock.takeFencingToken(ownerId);
+                if (token == null) {
+                    releaseRemote(false);
+                    throw new IllegalStateException("distributed lock " + lockName + " acquired without fencing token");
+                }
+                fencingToken = token;
+                LOGGER.info("node hold distributed lock {}", lockName);
+            }
+            acquired = true;
+            return fencingToken;
+        } finally {
+            if (!acquired) {
+                local.unlock();
+            }
+        }
+    }
+
+    /**
+     * 业务执行完成: 收到其它节点的加锁意向时立即释放远程锁, 否则保留到期后释放
+     * @param retentionMillis 保留时间(毫秒)
+     */
+    void release(long retentionMillis) {
+        try {
+            if (held) {
+                if (revoked) {
+                    releaseRemote(true);
+                } else {
+                    scheduleRelease(retentionMillis);
+                }
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * 收到其它节点的加锁意向: 本节点空闲时立即释放, 否则由当前业务结束时释放
+     */
+    void onRemoteInterest() {
+        revoked = true;
+        if (local.tryLock()) {
+            try {
+                if (held) {
+                    releaseRemote(true);
+                }
+            } finally {
+                local.unlock();
+            }
+        }
+    }
+
+    /**
+     * 复用前确认远程锁: 续租未发现丢失且剩余租约不少于三分之一时直接复用, 否则同步续租一次
+     */
+    private boolean verifyLease() throws Exception {
+        if (lost) {
+            return false;
+        }
+        long leaseNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        long start = System.nanoTime();
+        if (leaseDeadlineNanos - start >= leaseNanos / 3) {
+            return true;
+        }
+        if (!lock.renewLeaseAsync(leaseMillis, ownerId).get()) {
+            return false;
+        }
+        leaseDeadlineNanos = start + leaseNanos;
+        return true;
+    }
+
+    /**
+     * 等待上一次远程解锁完成, 避免以同一持有者标识重入尚未释放的锁
+     * @param deadline 加锁截止时间(System.nanoTime)
+     * @return true:已完成; false:截止时间内未完成
+     */
+    private boolean awaitUnlock(long deadline) throws InterruptedException {
+        if (pendingUnlock == null) {
+            return true;
+        }
+        if (!pendingUnlock.await(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        pendingUnlock = null;
+        return true;
+    }
+
+    /**
+     * 交接窗口内不参与竞争: 其它节点已取得锁时直接排队等待其释放通知, 否则休眠到窗口结束
+     * (释放通知只在解锁时发布, 其它节点加锁无通知可等, 只检查一次)
+     */
+    private void awaitHandOff(long deadline) throws InterruptedException {
+        if (handOffDeadlineNanos == 0) {
+            return;
+        }
+        long until = handOffDeadlineNanos - deadline < 0 ? handOffDeadlineNanos : deadline;
+        handOffDeadlineNanos = 0;
+        long remaining = until - System.nanoTime();
+        if (remaining > 0 && !lock.isLocked()) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * 每隔三分之一租约续租一次, 发现锁已丢失时停止
+     */
+    private void scheduleRenewal(long generation, long leaseMillis) {
+        renewal = lock.commandExecutor.getConnectionManager().newTimeout(timeout -> {
+            if (renewalGeneration.get() != generation) {
+                return;
+            }
+            long start = System.nanoTime();
+            lock.renewLeaseAsync(leaseMillis, ownerId).onComplete((renewed, e) -> {
+                if (renewalGeneration.get() != generation) {
+                    return;
+                }
+                if (e != null) {
+                    LOGGER.warn("renew distributed lock {} failed: {}", lockName, e.getMessage());
+                } else if (!renewed) {
+                    lost = true;
+                    LOGGER.warn("node lost distributed lock {}", lockName);
+                    return;
+                } else {
+                    leaseDeadlineNanos = start + TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+                }
+                scheduleRenewal(generation, leaseMillis);
+            });
+        }, leaseMillis / 3, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleRelease(long retentionMillis) {
+        releaseTask = lock.commandExecutor.getConnectionManager().newTimeout(timeout -> {
+            // 本地锁被占用时由占用者负责释放或重新计时
+            if (local.tryLock()) {
+                try {
+                    if (held && releaseTask == timeout) {
+                        releaseRemote(false);
+                    }
+                } finally {
+                    local.unlock();
+                }
+            }
+        }, retentionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelRelease() {
+        if (releaseTask != null) {
+            releaseTask.cancel();
+            releaseTask = null;
+        }
+    }
+
+    /**
+     * 释放远程锁
+     * @param handOff 是否让给发出加锁意向的其它节点
+     */
+    private void releaseRemote(boolean handOff) {
+        clearHeld();
+        if (handOff) {
+            handOffDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(HAND_OFF_MILLIS);
+        }
+        pendingUnlock = lock.unlockAsync(ownerId);
+        pendingUnlock.onComplete((released, e) -> {
+            if (e != null) {
+                LOGGER.error("release distributed lock " + lockName + " failed", e);
+            } else {
+                LOGGER.info("node released distributed lock {}", lockName);
+            }
+        });
+    }
+
+    /**
+     * 不再持有远程锁: 停止续租及保留到期释放
+     */
+    private void clearHeld() {
+        held = false;
+        cancelRelease();
+        renewalGeneration.incrementAndGet();
+        if (renewal != null) {
+            renewal.cancel();
+            renewal = null;
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.simon.credit.service.redis;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REDIS异步操作服务<br>
+ * 结果在IO线程中完成, 后续处理如有阻塞操作应使用*Async方法切换到业务线程池
+ * @author XUZIMING 2026-10-18
+ */
+public interface AsyncRedisService {
+
+	/**
+	 * 执行set操作
+	 * 
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	CompletableFuture<String> set(String key, String value);
+
+	/**
+	 * 执行hash set操作
+	 * 
+	 * @param key
+	 * @param field hash数据结构名
+	 * @param value
+	 * @return
+	 */
+	CompletableFuture<Long> hset(String key, String field, String value);
+
+	/**
+	 * 执行set操作，同时设置生存时间，单位为：秒
+	 * 
+	 * @param key
+	 * @param value
+	 * @param seconds
+	 * @return
+	 */
+	CompletableFuture<String> set(String key, String value, Integer seconds);
+
+	/**
+	 * 执行get操作
+	 * 
+	 * @param key
+	 * @return
+	 */
+	CompletableFuture<String> get(String key);
+
+	/**
+	 * 执行hash get操作
+	 * 
+	 * @param key
+	 * @param field hash数据结构名
+	 * @return
+	 */
+	CompletableFuture<String> hget(String key, String field);
+
+	/**
+	 * 执行删除操作
+	 * 
+	 * @param key
+	 * @return
+	 */
+	CompletableFuture<Long> del(String key);
+
+	/**
+	 * 设置生存时间，单位为：秒
+	 * 
+	 * @param key
+	 * @param seconds
+	 * @return
+	 */
+	CompletableFuture<Long> expire(String key, Integer seconds);
+
+	/**
+	 * 判断hash是否包含指定key
+	 * @param key
+	 * @param field hash数据结构名
+	 * @return
+	 */
+	CompletableFuture<Boolean> hexists(String key, String field);
+
+	/**
+	 * 执行hash multi set操作
+	 * @param key
+	 * @param hash
+	 * @return
+	 */
+	CompletableFuture<String> hmset(String key, Map<String, String> hash);
+
+}
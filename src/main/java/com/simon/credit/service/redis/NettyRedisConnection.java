@@ -0,0 +1,297 @@
+package com.simon.credit.service.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * 单个分片的非阻塞连接<br>
+ * 每个分片持有少量长连接, 命令按轮询分配到连接上, 同一连接上的命令连续写出(流水线), 应答按发送顺序与命令一一对应;
+ * 同一次事件循环中写出的命令合并为一次flush. 连接断开或有待应答命令时超过soTimeout未收到任何应答则关闭连接, 该连接上未完成的命令全部失败,
+ * 下一个命令重新建立连接
+ * @author XUZIMING 2026-10-18
+ */
+final class NettyRedisConnection {
+	private static final Logger LOGGER = LoggerFactory.getLogger(NettyRedisConnection.class);
+
+	/** 合并flush的最大写出次数 */
+	private static final int EXPLICIT_FLUSH_AFTER_FLUSHES = 256;
+
+	private static final byte[] CRLF = {'\r', '\n'};
+
+	private final JedisShardInfo shardInfo;
+
+	private final Bootstrap bootstrap;
+
+	private final Lane[] lanes;
+
+	private final AtomicInteger nextLane = new AtomicInteger();
+
+	NettyRedisConnection(EventLoopGroup group, JedisShardInfo shardInfo, int connections) {
+		if (shardInfo.getSsl()) {
+			throw new IllegalArgumentException("ssl redis shard is not supported: " + shardInfo);
+		}
+		this.shardInfo = shardInfo;
+		this.bootstrap = new Bootstrap().group(group)
+				.channel(NioSocketChannel.class)
+				.option(ChannelOption.TCP_NODELAY, true)
+				.option(ChannelOption.SO_KEEPALIVE, true)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, shardInfo.getConnectionTimeout())
+				.handler(new ChannelInitializer<SocketChannel>() {
+					@Override
+					protected void initChannel(SocketChannel channel) {
+						channel.pipeline().addLast(
+								new FlushConsolidationHandler(EXPLICIT_FLUSH_AFTER_FLUSHES, true),
+								new RedisRespDecoder(),
+								new CommandHandler());
+					}
+				});
+		this.lanes = new Lane[connections];
+		for (int i = 0; i < connections; i++) {
+			lanes[i] = new Lane();
+		}
+	}
+
+	/**
+	 * 发送命令
+	 * @param converter 应答转换
+	 * @param args 命令及参数
+	 * @return 命令结果(在连接的事件循环线程中完成)
+	 */
+	<T> CompletableFuture<T> send(Function<Object, T> converter, String... args) {
+		Command<T> command = new Command<>(args, converter);
+		Lane lane = lanes[(nextLane.getAndIncrement() & Integer.MAX_VALUE) % lanes.length];
+		lane.channel().whenComplete((channel, e) -> {
+			if (e != null) {
+				command.fail(e);
+			} else {
+				write(channel, command);
+			}
+		});
+		return command.result;
+	}
+
+	private void write(Channel channel, Command<?> command) {
+		channel.writeAndFlush(command).addListener(future -> {
+			if (!future.isSuccess()) {
+				command.fail(new JedisConnectionException(future.cause()));
+			}
+		});
+	}
+
+	void close() {
+		for (Lane lane : lanes) {
+			lane.close();
+		}
+	}
+
+	/**
+	 * 一条连接: 断开后由下一个命令重新建立
+	 */
+	private final class Lane {
+		private CompletableFuture<Channel> channel;
+
+		synchronized CompletableFuture<Channel> channel() {
+			if (channel == null || channel.isCompletedExceptionally() || (channel.isDone() && !channel.join().isActive())) {
+				channel = connect();
+			}
+			return channel;
+		}
+
+		synchronized void close() {
+			if (channel != null) {
+				channel.thenAccept(Channel::close);
+			}
+		}
+
+		/**
+		 * 建立连接, 需要时先认证并选择数据库
+		 */
+		private CompletableFuture<Channel> connect() {
+			CompletableFuture<Channel> connected = new CompletableFuture<>();
+			ChannelFuture connectFuture = bootstrap.connect(shardInfo.getHost(), shardInfo.getPort());
+			connectFuture.addListener(future -> {
+				if (!future.isSuccess()) {
+					LOGGER.error("connect to redis " + shardInfo.getHost() + ":" + shardInfo.getPort() + " failed", future.cause());
+					connected.completeExceptionally(new JedisConnectionException(future.cause()));
+					return;
+				}
+				Channel ch = connectFuture.channel();
+				CompletableFuture<Object> ready = CompletableFuture.completedFuture(null);
+				if (shardInfo.getPassword() != null) {
+					ready = ready.thenCompose(v -> initialize(ch, "AUTH", shardInfo.getPassword()));
+				}
+				if (shardInfo.getDb() != 0) {
+					ready = ready.thenCompose(v -> initialize(ch, "SELECT", String.valueOf(shardInfo.getDb())));
+				}
+				ready.whenComplete((v, e) -> {
+					if (e != null) {
+						ch.close();
+						connected.completeExceptionally(e);
+					} else {
+						connected.complete(ch);
+					}
+				});
+			});
+			return connected;
+		}
+
+		private CompletableFuture<Object> initialize(Channel ch, String... args) {
+			Command<Object> command = new Command<>(args, Function.identity());
+			write(ch, command);
+			return command.result;
+		}
+	}
+
+	/**
+	 * 命令编码与应答分发: 写出命令时登记到待应答队列, 收到应答时按顺序取出(均在事件循环线程中执行)
+	 */
+	private final class CommandHandler extends ChannelDuplexHandler {
+		private final Queue<Command<?>> pending = new ArrayDeque<>();
+
+		/** 最近一次收到应答(或开始等待应答)的时间 */
+		private long lastProgressNanos;
+
+		/** 应答超时检查任务 */
+		private ScheduledFuture<?> timeoutCheck;
+
+		@Override
+		public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+			if (!(msg instanceof Command)) {
+				ctx.write(msg, promise);
+				return;
+			}
+			Command<?> command = (Command<?>) msg;
+			ByteBuf buf = ctx.alloc().buffer();
+			encode(command.args, buf);
+			if (pending.isEmpty()) {
+				lastProgressNanos = System.nanoTime();
+			}
+			pending.add(command);
+			if (timeoutCheck == null && shardInfo.getSoTimeout() > 0) {
+				scheduleTimeoutCheck(ctx, shardInfo.getSoTimeout());
+			}
+			ctx.write(buf, promise);
+		}
+
+		/**
+		 * 流水线上的命令排队等待应答是正常的, 只在持续soTimeout没有任何应答时才判定超时;
+		 * 超时后关闭连接, 流水线上的后续应答无法再与命令对应
+		 */
+		private void scheduleTimeoutCheck(ChannelHandlerContext ctx, long delayMillis) {
+			timeoutCheck = ctx.executor().schedule(() -> {
+				timeoutCheck = null;
+				if (pending.isEmpty()) {
+					return;
+				}
+				long soTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(shardInfo.getSoTimeout());
+				long idleNanos = System.nanoTime() - lastProgressNanos;
+				if (idleNanos >= soTimeoutNanos) {
+					LOGGER.error("redis connection {}:{} has no reply for {}ms, closing", shardInfo.getHost(), shardInfo.getPort(), shardInfo.getSoTimeout());
+					ctx.close();
+				} else {
+					scheduleTimeoutCheck(ctx, TimeUnit.NANOSECONDS.toMillis(soTimeoutNanos - idleNanos) + 1);
+				}
+			}, delayMillis, TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) {
+			Command<?> command = pending.poll();
+			if (command == null) {
+				LOGGER.error("unexpected redis reply, closing connection");
+				ctx.close();
+				return;
+			}
+			lastProgressNanos = System.nanoTime();
+			command.complete(msg);
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+			JedisConnectionException closed = new JedisConnectionException("redis connection closed");
+			Command<?> command;
+			while ((command = pending.poll()) != null) {
+				command.fail(closed);
+			}
+			if (timeoutCheck != null) {
+				timeoutCheck.cancel(false);
+			}
+			super.channelInactive(ctx);
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+			LOGGER.error("redis connection error", cause);
+			ctx.close();
+		}
+	}
+
+	/**
+	 * RESP命令编码: *参数个数 $参数长度 参数...
+	 */
+	private static void encode(String[] args, ByteBuf buf) {
+		buf.writeByte('*').writeBytes(String.valueOf(args.length).getBytes(StandardCharsets.US_ASCII)).writeBytes(CRLF);
+		for (String arg : args) {
+			byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+			buf.writeByte('$').writeBytes(String.valueOf(bytes.length).getBytes(StandardCharsets.US_ASCII)).writeBytes(CRLF);
+			buf.writeBytes(bytes).writeBytes(CRLF);
+		}
+	}
+
+	/**
+	 * 待应答的命令
+	 */
+	private static final class Command<T> {
+		private final String[] args;
+		private final Function<Object, T> converter;
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+
+		Command(String[] args, Function<Object, T> converter) {
+			this.args = args;
+			this.converter = converter;
+		}
+
+		void complete(Object reply) {
+			if (reply instanceof RedisRespDecoder.ErrorReply) {
+				result.completeExceptionally(new JedisDataException(((RedisRespDecoder.ErrorReply) reply).getMessage()));
+				return;
+			}
+			try {
+				result.complete(converter.apply(reply == RedisRespDecoder.NIL ? null : reply));
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		void fail(Throwable cause) {
+			result.completeExceptionally(cause);
+		}
+	}
+
+}
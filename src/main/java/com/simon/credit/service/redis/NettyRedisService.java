@@ -0,0 +1,135 @@
+package com.simon.credit.service.redis;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.util.Sharded;
+
+/**
+ * REDIS异步操作服务(基于NETTY实现)<br>
+ * 与ShardedJedisPool使用相同的一致性哈希路由(同样的分片信息路由到同样的分片), 每个分片只持有少量多路复用的长连接,
+ * 命令在连接上连续写出不等待应答, 少量IO线程即可承载原来需要大连接池的并发量
+ * @author XUZIMING 2026-10-18
+ */
+public class NettyRedisService implements AsyncRedisService {
+
+	/** 默认IO线程数 */
+	private static final int DEFAULT_IO_THREADS = 2;
+
+	/** 默认每个分片的连接数 */
+	private static final int DEFAULT_CONNECTIONS_PER_SHARD = 2;
+
+	private static final Function<Object, String> STRING = reply -> (String) reply;
+
+	private static final Function<Object, Long> LONG = reply -> (Long) reply;
+
+	private static final Function<Object, Boolean> BOOLEAN = reply -> reply != null && (Long) reply == 1L;
+
+	private final EventLoopGroup group;
+
+	/** 分片路由(只用于计算key所属分片, 不使用其中的Jedis连接) */
+	private final Sharded<Jedis, JedisShardInfo> sharded;
+
+	/** 各分片的连接(key: 分片信息) */
+	private final Map<JedisShardInfo, NettyRedisConnection> connections = new IdentityHashMap<>();
+
+	public NettyRedisService(List<JedisShardInfo> shards) {
+		this(shards, DEFAULT_IO_THREADS, DEFAULT_CONNECTIONS_PER_SHARD);
+	}
+
+	/**
+	 * @param shards 分片信息(与ShardedJedisPool相同)
+	 * @param ioThreads IO线程数
+	 * @param connectionsPerShard 每个分片的连接数
+	 */
+	public NettyRedisService(List<JedisShardInfo> shards, int ioThreads, int connectionsPerShard) {
+		if (ioThreads <= 0 || connectionsPerShard <= 0) {
+			throw new IllegalArgumentException("ioThreads and connectionsPerShard must be positive.");
+		}
+		this.group = new NioEventLoopGroup(ioThreads, new DefaultThreadFactory("redis-netty", true));
+		this.sharded = new Sharded<>(shards);
+		// 按分片建立连接, Sharded的getAllShardInfo返回的是各分片的虚拟节点(同一分片重复多次)
+		for (JedisShardInfo shardInfo : shards) {
+			connections.put(shardInfo, new NettyRedisConnection(group, shardInfo, connectionsPerShard));
+		}
+	}
+
+	private <T> CompletableFuture<T> send(String key, Function<Object, T> converter, String... args) {
+		return connections.get(sharded.getShardInfo(key)).send(converter, args);
+	}
+
+	@Override
+	public CompletableFuture<String> set(String key, String value) {
+		return send(key, STRING, "SET", key, value);
+	}
+
+	@Override
+	public CompletableFuture<Long> hset(String key, String field, String value) {
+		return send(key, LONG, "HSET", key, field, value);
+	}
+
+	/**
+	 * 执行set操作，同时设置生存时间(SET EX, 一条命令原子完成)
+	 */
+	@Override
+	public CompletableFuture<String> set(String key, String value, Integer seconds) {
+		return send(key, STRING, "SET", key, value, "EX", String.valueOf(seconds));
+	}
+
+	@Override
+	public CompletableFuture<String> get(String key) {
+		return send(key, STRING, "GET", key);
+	}
+
+	@Override
+	public CompletableFuture<String> hget(String key, String field) {
+		return send(key, STRING, "HGET", key, field);
+	}
+
+	@Override
+	public CompletableFuture<Long> del(String key) {
+		return send(key, LONG, "DEL", key);
+	}
+
+	@Override
+	public CompletableFuture<Long> expire(String key, Integer seconds) {
+		return send(key, LONG, "EXPIRE", key, String.valueOf(seconds));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> hexists(String key, String field) {
+		return send(key, BOOLEAN, "HEXISTS", key, field);
+	}
+
+	@Override
+	public CompletableFuture<String> hmset(String key, Map<String, String> hash) {
+		String[] args = new String[2 + hash.size() * 2];
+		args[0] = "HMSET";
+		args[1] = key;
+		int i = 2;
+		for (Map.Entry<String, String> entry : hash.entrySet()) {
+			args[i++] = entry.getKey();
+			args[i++] = entry.getValue();
+		}
+		return send(key, STRING, args);
+	}
+
+	/**
+	 * 关闭全部连接及IO线程
+	 */
+	public void shutdown() {
+		for (NettyRedisConnection connection : connections.values()) {
+			connection.close();
+		}
+		group.shutdownGracefully();
+	}
+
+}
@@ -0,0 +1,209 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPool;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * 自动流水线<br>
+ * 多个线程并发提交的单键命令进入同一个队列, 由其中一个调用线程(leader)借用一个分片连接, 将队列中的命令按键分组到各分片,
+ * 每个分片一条流水线、一次往返; 其余调用线程(follower)只等待各自的结果. 各分片的应答全部读取后再逐个取结果,
+ * 单个命令的错误应答(如类型不匹配)只影响该命令.
+ * 命令在上一批往返期间积累, 并发越高批量越大, 吞吐随批量增长而不是随连接数增长<br>
+ * 同时进行的批次数有上限, 超出上限的调用线程只入队等待; leader在自己的命令完成后交出leader身份,
+ * 由队首命令的调用线程接任, 单个调用线程不会被持续的高负载长期占用
+ * @author XUZIMING 2026-10-18
+ */
+final class RedisAutoPipeline {
+
+	/** 单批最多命令数 */
+	private final int maxBatchSize;
+
+	/** 最多同时进行的批次数 */
+	private final int maxConcurrentBatches;
+
+	private final ShardedJedisPool shardedJedisPool;
+
+	private final ConcurrentLinkedQueue<Command<?>> queue = new ConcurrentLinkedQueue<>();
+
+	/** 正在执行批次的leader数 */
+	private final AtomicInteger leaders = new AtomicInteger();
+
+	RedisAutoPipeline(ShardedJedisPool shardedJedisPool, int maxBatchSize, int maxConcurrentBatches) {
+		if (maxBatchSize <= 0 || maxConcurrentBatches <= 0) {
+			throw new IllegalArgumentException("pipeline limits must be positive.");
+		}
+		this.shardedJedisPool = shardedJedisPool;
+		this.maxBatchSize = maxBatchSize;
+		this.maxConcurrentBatches = maxConcurrentBatches;
+	}
+
+	/**
+	 * 执行单键命令(与其它线程的命令合并到同一流水线)
+	 * @param key 命令的键, 决定命令所在的分片
+	 * @param pipelineCallback 向该分片的流水线写入命令
+	 * @return 命令结果
+	 */
+	<T> T execute(String key, RedisCallback<Response<T>, Pipeline> pipelineCallback) {
+		Command<T> command = new Command<>(key, pipelineCallback);
+		queue.add(command);
+		lead(command);
+		while (!command.result.isDone()) {
+			// 等待命令完成或被唤醒接任leader
+			command.signal.acquireUninterruptibly();
+			lead(command);
+		}
+
+		try {
+			return command.result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JedisException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : new JedisException(cause);
+		}
+	}
+
+	/**
+	 * 批次数未达上限时成为leader执行批次, 直到自己的命令完成或队列为空
+	 */
+	private void lead(Command<?> own) {
+		while (!own.result.isDone() && !queue.isEmpty()) {
+			int current = leaders.get();
+			if (current >= maxConcurrentBatches) {
+				// 正在执行的leader退出时会唤醒队首命令的调用线程
+				return;
+			}
+			if (!leaders.compareAndSet(current, current + 1)) {
+				continue;
+			}
+			try {
+				List<Command<?>> batch;
+				while (!own.result.isDone() && !(batch = poll()).isEmpty()) {
+					executeBatch(batch);
+				}
+			} finally {
+				leaders.decrementAndGet();
+			}
+			// 唤醒队首命令的调用线程接任leader(退出后入队的命令由其调用线程自行检查)
+			Command<?> head = queue.peek();
+			if (head != null) {
+				head.signal.release();
+			}
+		}
+	}
+
+	private List<Command<?>> poll() {
+		List<Command<?>> batch = new ArrayList<>();
+		Command<?> command;
+		while (batch.size() < maxBatchSize && (command = queue.poll()) != null) {
+			batch.add(command);
+		}
+		return batch;
+	}
+
+	private void executeBatch(List<Command<?>> batch) {
+		ShardedJedis shardedJedis = null;
+		boolean broken = false;
+		try {
+			shardedJedis = shardedJedisPool.getResource();
+			Map<Jedis, List<Command<?>>> shards = new IdentityHashMap<>();
+			for (Command<?> command : batch) {
+				shards.computeIfAbsent(shardedJedis.getShard(command.key), jedis -> new ArrayList<>()).add(command);
+			}
+			for (Map.Entry<Jedis, List<Command<?>>> shard : shards.entrySet()) {
+				broken |= !executeOnShard(shard.getKey(), shard.getValue());
+			}
+		} catch (RuntimeException e) {
+			// 未能借到连接
+			for (Command<?> command : batch) {
+				command.fail(e);
+			}
+		} finally {
+			if (shardedJedis != null) {
+				if (broken) {
+					shardedJedisPool.returnBrokenResource(shardedJedis);
+				} else {
+					shardedJedisPool.returnResourceObject(shardedJedis);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 单个分片一次往返: Pipeline读取全部应答后再取结果, 错误应答只使对应命令失败
+	 * @return 连接是否仍可用
+	 */
+	private boolean executeOnShard(Jedis jedis, List<Command<?>> commands) {
+		try {
+			Pipeline pipeline = jedis.pipelined();
+			for (Command<?> command : commands) {
+				command.send(pipeline);
+			}
+			pipeline.sync();
+		} catch (RuntimeException e) {
+			// 往返失败时连接上可能残留未读取的响应, 不能放回连接池
+			for (Command<?> command : commands) {
+				command.fail(e);
+			}
+			return false;
+		}
+		for (Command<?> command : commands) {
+			command.complete();
+		}
+		return true;
+	}
+
+	/**
+	 * 单个调用线程提交的命令
+	 */
+	private static final class Command<T> {
+		private final String key;
+		private final RedisCallback<Response<T>, Pipeline> pipelineCallback;
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+		/** 命令完成或被唤醒接任leader时释放 */
+		private final Semaphore signal = new Semaphore(0);
+		private Response<T> response;
+
+		Command(String key, RedisCallback<Response<T>, Pipeline> pipelineCallback) {
+			this.key = key;
+			this.pipelineCallback = pipelineCallback;
+		}
+
+		void send(Pipeline pipeline) {
+			response = pipelineCallback.callback(pipeline);
+		}
+
+		/**
+		 * 取出本命令的结果, 命令错误(如类型不匹配)只影响本命令
+		 */
+		void complete() {
+			try {
+				result.complete(response.get());
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+			signal.release();
+		}
+
+		void fail(RuntimeException e) {
+			result.completeExceptionally(e);
+			signal.release();
+		}
+	}
+
+}
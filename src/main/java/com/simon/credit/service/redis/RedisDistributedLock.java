@@ -1,33 +1,186 @@
 package com.simon.credit.service.redis;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.AsyncDistributedLock;
+import com.simon.credit.service.lock.LockRetryPolicies;
+import com.simon.credit.service.lock.LockRetryPolicy;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
 import redis.clients.jedis.ShardedJedis;
 
 /**
  * Redis分布式锁
  * @author XUZIMING 2019-11-10
  */
-public class RedisDistributedLock implements DistributedLock {
+public class RedisDistributedLock implements AsyncDistributedLock {
+
+	/** 释放通知丢失时的兜底轮询间隔(默认500毫秒) */
+	private static final long DEFAULT_FALLBACK_POLL_MILLIS = 500L;
+
+	/** 公平模式下排队超时时间为兜底轮询间隔的倍数: 等待者每个轮询间隔至少刷新一次, 崩溃的等待者最多阻塞队列这么久 */
+	private static final int FAIR_WAITER_TIMEOUT_POLLS = 3;
+
+	/** 预先注册的Redis节点(key: host:port), 用于补全单机Jedis模式下无法取得的密码等连接信息 */
+	private static final ConcurrentMap<String, JedisShardInfo> REGISTERED_NODES = new ConcurrentHashMap<>();
 
 	private JedisWrapper jedisWrapper;
 
 	private String lockKey;
 
+	/** 令牌模式: SET NX PX一次往返加锁, 比较并删除脚本一次往返释放锁 */
+	private boolean ownerTokenMode;
+
+	/** 持有者令牌(每个锁实例唯一, 仅令牌模式使用) */
+	private final String lockToken = UUID.randomUUID().toString();
+
+	/** 锁租约时间(毫秒, 仅令牌模式使用) */
+	private long leaseMillis = LOCK_MAX_WAIT_MILLISECONDS;
+
+	/** 重试策略(默认按锁键从{@link LockRetryPolicies}中查找) */
+	private LockRetryPolicy retryPolicy;
+
+	/** 最近一次加锁失败时持有者的剩余租约(毫秒, 仅令牌模式可知) */
+	private long holderTtlMillis = LockRetryPolicy.UNKNOWN_TTL;
+
+	/** 是否基于释放通知等待锁(否则按重试策略休眠轮询) */
+	private boolean releaseNotification;
+
+	/** 兜底轮询间隔(毫秒, 仅通知模式使用) */
+	private long fallbackPollMillis = DEFAULT_FALLBACK_POLL_MILLIS;
+
+	/** 是否由看门狗自动续租(仅令牌模式使用) */
+	private boolean watchdogEnabled;
+
+	/** 当前是否持有锁(仅令牌模式使用) */
+	private boolean locked;
+
+	/** 公平模式: 等待者按先来后到排队, 释放锁时只唤醒队首(仅令牌模式使用) */
+	private boolean fairMode;
+
+	/** 最近一次加锁成功时发放的防护令牌(仅令牌模式使用) */
+	private long fencingToken = NO_FENCING_TOKEN;
+
 	public RedisDistributedLock(Jedis jedis, String lockKey) {
 		this(JedisWrapper.wrap(jedis, null), lockKey);
 	}
 
+	/**
+	 * 预先注册Redis节点: 单机Jedis模式下无法从连接取得密码, 节点设置了密码时须先注册,
+	 * 否则释放通知的订阅连接与看门狗的续租连接无法建立
+	 * @param shardInfo 节点信息
+	 */
+	public static void registerNode(JedisShardInfo shardInfo) {
+		REGISTERED_NODES.put(RedisLockNotifier.nodeName(shardInfo), shardInfo);
+	}
+
 	public RedisDistributedLock(ShardedJedis sharedJedis, String lockKey) {
 		this(JedisWrapper.wrap(null, sharedJedis), lockKey);
 	}
 
 	public RedisDistributedLock(JedisWrapper jedisWrapper, String lockKey) {
+		this(jedisWrapper, lockKey, false);
+	}
+
+	public RedisDistributedLock(Jedis jedis, String lockKey, boolean ownerTokenMode) {
+		this(JedisWrapper.wrap(jedis, null), lockKey, ownerTokenMode);
+	}
+
+	public RedisDistributedLock(ShardedJedis sharedJedis, String lockKey, boolean ownerTokenMode) {
+		this(JedisWrapper.wrap(null, sharedJedis), lockKey, ownerTokenMode);
+	}
+
+	public RedisDistributedLock(JedisWrapper jedisWrapper, String lockKey, boolean ownerTokenMode) {
 		this.jedisWrapper = jedisWrapper;
 		this.lockKey = lockKey;
+		this.ownerTokenMode = ownerTokenMode;
+		this.retryPolicy = LockRetryPolicies.forName(lockKey);
+	}
+
+	/**
+	 * 设置重试策略(覆盖按锁键注册的策略)
+	 * @param retryPolicy 重试策略
+	 */
+	public void setRetryPolicy(LockRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * 设置锁租约时间(仅令牌模式生效, 默认3000毫秒)
+	 * @param leaseMillis 租约时间(毫秒)
+	 */
+	public void setLeaseMillis(long leaseMillis) {
+		if (leaseMillis <= 0) {
+			throw new IllegalArgumentException("leaseMillis must be positive.");
+		}
+		if (watchdogEnabled && leaseMillis < RedisLockWatchdog.MIN_LEASE_MILLIS) {
+			throw new IllegalArgumentException("leaseMillis must be at least " + RedisLockWatchdog.MIN_LEASE_MILLIS + " with watchdog.");
+		}
+		this.leaseMillis = leaseMillis;
+	}
+
+	/**
+	 * 开启基于释放通知的等待: 等待线程阻塞在本地, 由锁释放通知唤醒, 同时按兜底间隔重试
+	 * @param releaseNotification true:通知模式; false:固定休眠轮询
+	 */
+	public void setReleaseNotification(boolean releaseNotification) {
+		this.releaseNotification = releaseNotification;
+	}
+
+	/**
+	 * 设置兜底轮询间隔(仅通知模式生效, 默认500毫秒)
+	 * @param fallbackPollMillis 兜底轮询间隔(毫秒)
+	 */
+	public void setFallbackPollMillis(long fallbackPollMillis) {
+		if (fallbackPollMillis <= 0) {
+			throw new IllegalArgumentException("fallbackPollMillis must be positive.");
+		}
+		this.fallbackPollMillis = fallbackPollMillis;
+	}
+
+	/**
+	 * 开启看门狗自动续租(仅令牌模式): 持有锁期间由共享调度线程定期将租约延长至leaseMillis,
+	 * 临界区执行时间超过租约时不会被其它节点抢占, 进程崩溃后租约自然过期
+	 * @param watchdogEnabled true:开启; false:关闭
+	 */
+	public void setWatchdogEnabled(boolean watchdogEnabled) {
+		if (watchdogEnabled && !ownerTokenMode) {
+			throw new IllegalStateException("watchdog requires owner token mode.");
+		}
+		if (watchdogEnabled && leaseMillis < RedisLockWatchdog.MIN_LEASE_MILLIS) {
+			throw new IllegalStateException("watchdog requires leaseMillis of at least " + RedisLockWatchdog.MIN_LEASE_MILLIS + ".");
+		}
+		this.watchdogEnabled = watchdogEnabled;
+	}
+
+	/**
+	 * 开启公平模式(仅令牌模式): 等待者在Redis有序集合中按先来后到排队, 锁空闲时只有队首能加锁,
+	 * 释放锁时只通知队首等待者. 排队超时时间为兜底轮询间隔的{@value #FAIR_WAITER_TIMEOUT_POLLS}倍,
+	 * 等待期间每次重试都会刷新, 放弃等待或进程崩溃的等待者会被移出队列. 同一锁键不可混用公平与非公平模式
+	 * @param fairMode true:公平模式; false:非公平模式
+	 */
+	public void setFairMode(boolean fairMode) {
+		if (fairMode && !ownerTokenMode) {
+			throw new IllegalStateException("fair mode requires owner token mode.");
+		}
+		this.fairMode = fairMode;
+	}
+
+	/**
+	 * 是否基于通知等待(公平模式只能由队首通知唤醒, 总是基于通知等待)
+	 */
+	private boolean waitsForNotification() {
+		return releaseNotification || fairMode;
 	}
 
 	/**
@@ -38,11 +191,17 @@ public class RedisDistributedLock implements DistributedLock {
 	 */
 	@Override
 	public boolean tryLock(long maxWait, TimeUnit waitUnit) {
+		if (waitsForNotification()) {
+			return tryLockWithNotification(waitUnit.toMillis(maxWait));
+		}
+
 		try {
 			// 获取锁截止时间
 			Long tryLockDeadline = System.currentTimeMillis() + waitUnit.toMillis(maxWait);
 
 			// 循环不断去获取锁，直至超过设置的超时时间为止
+			int attempt = 0;
+			long delay = 0L;
 			for (;;) {
 				// 当前时间超过了设定的超时时间，循环终止
 				if (System.currentTimeMillis() >= tryLockDeadline) {
@@ -53,12 +212,62 @@ public class RedisDistributedLock implements DistributedLock {
 				if (doTryLock(lockKey)) {
 					return true;
 				} else {
-					// 获取不到锁时休眠0.1秒，降低服务器压力
-					Thread.sleep(100);
+					// 获取不到锁时按重试策略休眠，降低服务器压力
+					delay = retryPolicy.nextDelayMillis(++attempt, delay, holderTtlMillis);
+					if (delay > 0) {
+						Thread.sleep(Math.min(delay, Math.max(tryLockDeadline - System.currentTimeMillis(), 1L)));
+					}
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/**
+	 * 基于释放通知的加锁: 获取不到锁时阻塞在本地等待者上, 由释放通知或兜底轮询唤醒
+	 * @param maxWaitMillis 最大等待时间(毫秒)
+	 * @return true:加锁成功; false:加锁失败
+	 */
+	private boolean tryLockWithNotification(long maxWaitMillis) {
+		long tryLockDeadline = System.currentTimeMillis() + maxWaitMillis;
+		RedisLockNotifier notifier = null;
+		RedisLockNotifier.LockWaiter waiter = null;
+		try {
+			if (doTryLock(lockKey)) {
+				return true;
+			}
+
+			notifier = RedisLockNotifier.getInstance();
+			waiter = notifier.addWaiter(jedisWrapper.shardInfo(lockKey), lockKey, fairMode ? lockToken : null, null);
+			int attempt = 0;
+			long delay = 0L;
+			for (;;) {
+				// 注册等待者之后再尝试一次, 避免错过注册之前发出的释放通知
+				if (doTryLock(lockKey)) {
+					return true;
 				}
+
+				long remaining = tryLockDeadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				// 释放通知随时唤醒, 重试策略与兜底轮询间隔决定最长等待时间
+				delay = retryPolicy.nextDelayMillis(++attempt, delay, holderTtlMillis);
+				waiter.await(Math.min(remaining, Math.min(delay, fallbackPollMillis)));
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		} catch (Exception e) {
 			e.printStackTrace();
+		} finally {
+			if (waiter != null) {
+				notifier.removeWaiter(lockKey, waiter);
+			}
+			if (fairMode && !locked) {
+				cancelFairWait();
+			}
 		}
 		return false;
 	}
@@ -68,14 +277,61 @@ public class RedisDistributedLock implements DistributedLock {
 		return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
 	}
 
+	/**
+	 * 异步加锁: 每次尝试在共享命令线程池中执行, 两次尝试之间不占用线程,
+	 * 由锁释放通知或兜底轮询定时器触发下一次尝试. 加锁完成前不可在其它线程使用同一个Jedis连接
+	 * @param maxWait 最大等待时间
+	 * @param waitUnit 最大等待时间单位
+	 * @return true:加锁成功; false:加锁失败
+	 */
+	@Override
+	public CompletableFuture<Boolean> tryLockAsync(long maxWait, TimeUnit waitUnit) {
+		AsyncAcquisition acquisition = new AsyncAcquisition(System.currentTimeMillis() + waitUnit.toMillis(maxWait));
+		acquisition.trigger();
+		return acquisition.result;
+	}
+
+	@Override
+	public CompletableFuture<Void> releaseAsync() {
+		return CompletableFuture.runAsync(this::realseLock, RedisLockExecutors.COMMAND_EXECUTOR);
+	}
+
+	/**
+	 * 防护令牌(仅令牌模式): 与加锁在同一脚本内由计数器{lockKey}:fencing递增得到, 不增加往返
+	 */
+	@Override
+	public long getFencingToken() {
+		return fencingToken;
+	}
+
 	/**
 	 * 释放锁
 	 */
 	@Override
 	public void realseLock() {
+		// 令牌模式: 比较令牌并删除, 只释放自己持有的锁, 删除成功后在同一脚本内发布释放通知
+		if (ownerTokenMode) {
+			if (locked && watchdogEnabled) {
+				RedisLockWatchdog.getInstance().unwatch(jedisWrapper.shardInfo(lockKey), lockKey, lockToken);
+			}
+			locked = false;
+			if (fairMode) {
+				jedisWrapper.eval(RedisLockScripts.RELEASE_FAIR_LOCK, Arrays.asList(lockKey, queueKey(), queueTimeoutKey()),
+						Arrays.asList(lockToken, RedisLockNotifier.CHANNEL, String.valueOf(System.currentTimeMillis())));
+				return;
+			}
+			jedisWrapper.eval(RedisLockScripts.RELEASE_LOCK, Collections.singletonList(lockKey),
+					Arrays.asList(lockToken, RedisLockNotifier.CHANNEL));
+			return;
+		}
+
 		// 如果当前时间已经超过超时时间，则释放锁
 		if (!isLockTimeout(lockKey)) {
 			jedisWrapper.del(lockKey);
+			if (releaseNotification) {
+				jedisWrapper.eval(RedisLockScripts.PUBLISH_RELEASE, Collections.singletonList(lockKey),
+						Collections.singletonList(RedisLockNotifier.CHANNEL));
+			}
 		}
 	}
 
@@ -85,6 +341,29 @@ public class RedisDistributedLock implements DistributedLock {
 	 * @return
 	 */
 	private boolean doTryLock(String lockKey) {
+		// 令牌模式: 原子地设置令牌及毫秒级过期时间并发放防护令牌, 失败时同一往返内取回持有者的剩余租约
+		if (ownerTokenMode) {
+			List<?> result = fairMode ?
+					(List<?>) jedisWrapper.eval(RedisLockScripts.ACQUIRE_FAIR_LOCK,
+							Arrays.asList(lockKey, lockKey + ":fencing", queueKey(), queueTimeoutKey()),
+							Arrays.asList(lockToken, String.valueOf(leaseMillis), String.valueOf(fallbackPollMillis * FAIR_WAITER_TIMEOUT_POLLS),
+									String.valueOf(System.currentTimeMillis()))) :
+					(List<?>) jedisWrapper.eval(RedisLockScripts.ACQUIRE_LOCK, Arrays.asList(lockKey, lockKey + ":fencing"),
+							Arrays.asList(lockToken, String.valueOf(leaseMillis)));
+			locked = Long.valueOf(1L).equals(result.get(0));
+			if (locked) {
+				fencingToken = (Long) result.get(1);
+				holderTtlMillis = LockRetryPolicy.UNKNOWN_TTL;
+			} else {
+				// 公平模式下锁空闲但未排到队首时剩余租约为负数
+				holderTtlMillis = Math.max((Long) result.get(1), LockRetryPolicy.UNKNOWN_TTL);
+			}
+			if (locked && watchdogEnabled) {
+				RedisLockWatchdog.getInstance().watch(jedisWrapper.shardInfo(lockKey), lockKey, lockToken, leaseMillis);
+			}
+			return locked;
+		}
+
 		// 当前时间
 		long currentTime = System.currentTimeMillis();
 		// 设置锁的持续时间
@@ -110,6 +389,26 @@ public class RedisDistributedLock implements DistributedLock {
 		return false;
 	}
 
+	/**
+	 * 放弃公平排队: 移出队列并在锁空闲时通知新的队首, 失败时等待排队超时后自动移出
+	 */
+	private void cancelFairWait() {
+		try {
+			jedisWrapper.eval(RedisLockScripts.CANCEL_FAIR_WAIT, Arrays.asList(lockKey, queueKey(), queueTimeoutKey()),
+					Arrays.asList(lockToken, RedisLockNotifier.CHANNEL));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	private String queueKey() {
+		return lockKey + ":queue";
+	}
+
+	private String queueTimeoutKey() {
+		return lockKey + ":queue_timeout";
+	}
+
 	/**
 	 * 判断加锁是否超时
 	 * @param lockKey 锁键
@@ -123,6 +422,95 @@ public class RedisDistributedLock implements DistributedLock {
 		return System.currentTimeMillis() > Long.valueOf(jedisWrapper.get(lockKey));
 	}
 
+	/**
+	 * 一次异步加锁过程: 同一时刻最多只有一次尝试在执行, 期间到达的触发合并为下一次尝试
+	 */
+	private final class AsyncAcquisition {
+		private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+		private final long tryLockDeadline;
+		private final AtomicInteger pendingTriggers = new AtomicInteger();
+		private RedisLockNotifier.LockWaiter waiter;
+		private ScheduledFuture<?> pollTimer;
+		private int attempt;
+		private long delay;
+
+		AsyncAcquisition(long tryLockDeadline) {
+			this.tryLockDeadline = tryLockDeadline;
+		}
+
+		/**
+		 * 触发一次加锁尝试(释放通知、定时器共用)
+		 */
+		void trigger() {
+			if (pendingTriggers.getAndIncrement() == 0) {
+				RedisLockExecutors.COMMAND_EXECUTOR.execute(this::drain);
+			}
+		}
+
+		private void drain() {
+			int missed = 1;
+			do {
+				attempt();
+				missed = pendingTriggers.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void attempt() {
+			if (result.isDone()) {
+				return;
+			}
+			try {
+				if (doTryLock(lockKey)) {
+					complete(true);
+					return;
+				}
+
+				long remaining = tryLockDeadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					complete(false);
+					return;
+				}
+
+				if (waiter == null && waitsForNotification()) {
+					waiter = RedisLockNotifier.getInstance().addWaiter(jedisWrapper.shardInfo(lockKey), lockKey,
+							fairMode ? lockToken : null, this::trigger);
+					// 订阅确认之后再尝试一次, 避免错过确认之前发出的释放通知; 等待确认期间不占用命令线程
+					waiter.subscribed().thenRun(this::trigger);
+					return;
+				}
+
+				delay = retryPolicy.nextDelayMillis(++attempt, delay, holderTtlMillis);
+				long wait = waitsForNotification() ? Math.min(delay, fallbackPollMillis) : delay;
+				if (pollTimer != null) {
+					pollTimer.cancel(false);
+				}
+				pollTimer = RedisLockExecutors.TIMER.schedule(this::trigger, Math.min(remaining, wait), TimeUnit.MILLISECONDS);
+			} catch (Exception e) {
+				cleanup();
+				result.completeExceptionally(e);
+			}
+		}
+
+		private void complete(boolean locked) {
+			cleanup();
+			result.complete(locked);
+		}
+
+		private void cleanup() {
+			if (fairMode && !locked) {
+				cancelFairWait();
+			}
+			if (waiter != null) {
+				RedisLockNotifier.getInstance().removeWaiter(lockKey, waiter);
+				waiter = null;
+			}
+			if (pollTimer != null) {
+				pollTimer.cancel(false);
+				pollTimer = null;
+			}
+		}
+	}
+
 	static final class JedisWrapper {
 		private Jedis jedis;
 		private ShardedJedis sharedJedis;
@@ -158,6 +546,30 @@ public class RedisDistributedLock implements DistributedLock {
 		public Long del(String key) {
 			return jedis != null ? jedis.del(key) : sharedJedis.del(key);
 		}
+
+		public String set(String key, String value, String nxxx, String expx, long time) {
+			return jedis != null ? jedis.set(key, value, nxxx, expx, time) : sharedJedis.set(key, value, nxxx, expx, time);
+		}
+
+		/**
+		 * 执行LUA脚本(分片模式下在第一个key所在的分片上执行)
+		 */
+		public Object eval(String script, List<String> keys, List<String> args) {
+			return jedis != null ? jedis.eval(script, keys, args) : sharedJedis.getShard(keys.get(0)).eval(script, keys, args);
+		}
+
+		/**
+		 * 获取key所在的节点信息(单机Jedis模式下优先使用预先注册的节点信息)
+		 */
+		public JedisShardInfo shardInfo(String key) {
+			if (jedis != null) {
+				String host = jedis.getClient().getHost();
+				int port = jedis.getClient().getPort();
+				JedisShardInfo registered = REGISTERED_NODES.get(host + ":" + port);
+				return registered != null ? registered : new JedisShardInfo(host, port);
+			}
+			return sharedJedis.getShardInfo(key);
+		}
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.simon.credit.service.redis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.DistributedReadWriteLock;
+import com.simon.credit.service.redis.RedisDistributedLock.JedisWrapper;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ShardedJedis;
+
+/**
+ * Redis分布式读写锁<br>
+ * 锁键为hash结构: mode字段记录读/写模式, 其余字段为持有者令牌及重入次数; 写者加锁失败时设置写者等待标记,
+ * 标记存在期间新的读者不能加锁(写者优先). 读者共享同一个租约, 最后一个读者加锁时刷新租约.
+ * 等待基于锁释放通知, 读者加锁成功后接力唤醒本地下一个等待者
+ * @author XUZIMING 2026-10-18
+ */
+public class RedisDistributedReadWriteLock implements DistributedReadWriteLock {
+
+	/** 释放通知丢失时的兜底轮询间隔(毫秒) */
+	private static final long FALLBACK_POLL_MILLIS = 500L;
+
+	/** 写者等待标记有效期(毫秒), 等待中的写者每次重试都会刷新 */
+	private static final long WRITE_INTENT_MILLIS = FALLBACK_POLL_MILLIS * 3;
+
+	private final JedisWrapper jedisWrapper;
+
+	private final String lockKey;
+
+	private final String writeIntentKey;
+
+	/** 持有者令牌 */
+	private final String lockToken = UUID.randomUUID().toString();
+
+	/** 锁租约时间(毫秒) */
+	private long leaseMillis = DistributedLock.LOCK_MAX_WAIT_MILLISECONDS;
+
+	private final DistributedLock readLock = new ReadWriteLockView(false);
+
+	private final DistributedLock writeLock = new ReadWriteLockView(true);
+
+	public RedisDistributedReadWriteLock(Jedis jedis, String lockKey) {
+		this(JedisWrapper.wrap(jedis, null), lockKey);
+	}
+
+	public RedisDistributedReadWriteLock(ShardedJedis sharedJedis, String lockKey) {
+		this(JedisWrapper.wrap(null, sharedJedis), lockKey);
+	}
+
+	public RedisDistributedReadWriteLock(JedisWrapper jedisWrapper, String lockKey) {
+		this.jedisWrapper = jedisWrapper;
+		this.lockKey = lockKey;
+		this.writeIntentKey = lockKey + ":write_intent";
+	}
+
+	/**
+	 * 设置锁租约时间(默认3000毫秒)
+	 * @param leaseMillis 租约时间(毫秒)
+	 */
+	public void setLeaseMillis(long leaseMillis) {
+		if (leaseMillis <= 0) {
+			throw new IllegalArgumentException("leaseMillis must be positive.");
+		}
+		this.leaseMillis = leaseMillis;
+	}
+
+	@Override
+	public DistributedLock readLock() {
+		return readLock;
+	}
+
+	@Override
+	public DistributedLock writeLock() {
+		return writeLock;
+	}
+
+	private final class ReadWriteLockView implements DistributedLock {
+		private final boolean write;
+
+		ReadWriteLockView(boolean write) {
+			this.write = write;
+		}
+
+		@Override
+		public boolean tryLock(long maxWait, TimeUnit waitUnit) {
+			long tryLockDeadline = System.currentTimeMillis() + waitUnit.toMillis(maxWait);
+			RedisLockNotifier notifier = RedisLockNotifier.getInstance();
+			RedisLockNotifier.LockWaiter waiter = null;
+			boolean locked = false;
+			try {
+				if (doTryLock()) {
+					locked = true;
+					return true;
+				}
+
+				waiter = notifier.addWaiter(jedisWrapper.shardInfo(lockKey), lockKey);
+				for (;;) {
+					if (doTryLock()) {
+						locked = true;
+						return true;
+					}
+
+					long remaining = tryLockDeadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						return false;
+					}
+					waiter.await(Math.min(remaining, FALLBACK_POLL_MILLIS));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				e.printStackTrace();
+			} finally {
+				if (waiter != null) {
+					notifier.removeWaiter(lockKey, waiter);
+					if (locked && !write) {
+						// 读锁可共享, 接力唤醒下一个本地等待者
+						notifier.onRelease(lockKey);
+					}
+				}
+				if (!locked && write) {
+					cancelWriteIntent();
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean tryLock() {
+			return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+		}
+
+		@Override
+		public void realseLock() {
+			jedisWrapper.eval(RedisLockScripts.RELEASE_READ_WRITE_LOCK, Collections.singletonList(lockKey),
+					Arrays.asList(lockToken, RedisLockNotifier.CHANNEL));
+		}
+
+		private boolean doTryLock() {
+			Object result;
+			if (write) {
+				result = jedisWrapper.eval(RedisLockScripts.ACQUIRE_WRITE_LOCK, Arrays.asList(lockKey, writeIntentKey),
+						Arrays.asList(lockToken, String.valueOf(leaseMillis), String.valueOf(WRITE_INTENT_MILLIS)));
+			} else {
+				result = jedisWrapper.eval(RedisLockScripts.ACQUIRE_READ_LOCK, Arrays.asList(lockKey, writeIntentKey),
+						Arrays.asList(lockToken, String.valueOf(leaseMillis)));
+			}
+			return Long.valueOf(1L).equals(result);
+		}
+
+		/**
+		 * 写者放弃等待: 清除自己的等待标记并通知被挡住的读者
+		 */
+		private void cancelWriteIntent() {
+			try {
+				jedisWrapper.eval(RedisLockScripts.CANCEL_WRITE_INTENT, Arrays.asList(lockKey, writeIntentKey),
+						Arrays.asList(lockToken, RedisLockNotifier.CHANNEL));
+			} catch (Exception e) {
+				// 等待标记到期后自动失效
+			}
+		}
+	}
+
+}
@@ -0,0 +1,334 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.DistributedSemaphore;
+
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * Redis分布式信号量<br>
+ * 许可池为zset结构, 成员为许可编号, score为许可过期时间, 获取许可时先清理过期许可, 持有节点崩溃不会泄漏许可.
+ * 可开启本地许可缓存: 每次向Redis多取若干许可, 本节点后续获取、归还优先走本地缓存, 不产生网络往返;
+ * 剩余租约不足三分之二的缓存许可在发放前于Redis中续期(与补充许可在同一次往返中完成).
+ * 发放出去的许可由看门狗续租, 持有时间超过租约也不会被Redis清理. 实例可在多线程间共享
+ * @author XUZIMING 2026-10-18
+ */
+public class RedisDistributedSemaphore implements DistributedSemaphore {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RedisDistributedSemaphore.class);
+
+	/** 释放通知丢失时的兜底轮询间隔(毫秒) */
+	private static final long FALLBACK_POLL_MILLIS = 500L;
+
+	private final ShardedJedisPool shardedJedisPool;
+
+	/** 许可池键 */
+	private final String semaphoreKey;
+
+	/** 许可总数 */
+	private final int maxPermits;
+
+	/** 许可编号前缀(每个实例唯一) */
+	private final String permitIdPrefix = UUID.randomUUID().toString() + ":";
+
+	/** 许可编号批次序号 */
+	private final AtomicLong batchSequence = new AtomicLong();
+
+	/** 许可租约时间(毫秒) */
+	private long leaseMillis = DistributedLock.LOCK_MAX_WAIT_MILLISECONDS;
+
+	/** 每次向Redis额外预取的许可数(0表示不缓存) */
+	private int prefetchPermits;
+
+	/** 本地缓存的空闲许可 */
+	private final Deque<Permit> cachedPermits = new ArrayDeque<>();
+
+	/** 已发放给调用方的许可 */
+	private final Deque<Permit> heldPermits = new ArrayDeque<>();
+
+	/** 许可池所在的Redis节点 */
+	private volatile JedisShardInfo shardInfo;
+
+	/**
+	 * @param shardedJedisPool 分片连接池
+	 * @param semaphoreKey 许可池键
+	 * @param maxPermits 集群范围的许可总数
+	 */
+	public RedisDistributedSemaphore(ShardedJedisPool shardedJedisPool, String semaphoreKey, int maxPermits) {
+		if (maxPermits <= 0) {
+			throw new IllegalArgumentException("maxPermits must be positive.");
+		}
+		this.shardedJedisPool = shardedJedisPool;
+		this.semaphoreKey = semaphoreKey;
+		this.maxPermits = maxPermits;
+	}
+
+	/**
+	 * 设置许可租约时间(默认3000毫秒), 持有期间由看门狗续租, 持有节点崩溃后许可在租约到期后回收
+	 * @param leaseMillis 租约时间(毫秒)
+	 */
+	public void setLeaseMillis(long leaseMillis) {
+		if (leaseMillis < RedisLockWatchdog.MIN_LEASE_MILLIS) {
+			throw new IllegalArgumentException("leaseMillis must be at least " + RedisLockWatchdog.MIN_LEASE_MILLIS + ".");
+		}
+		this.leaseMillis = leaseMillis;
+	}
+
+	/**
+	 * 设置本地许可缓存: 每次向Redis额外预取的许可数, 同时也是本地缓存的上限
+	 * @param prefetchPermits 预取许可数(0表示不缓存)
+	 */
+	public void setPrefetchPermits(int prefetchPermits) {
+		if (prefetchPermits < 0) {
+			throw new IllegalArgumentException("prefetchPermits can not be negative.");
+		}
+		this.prefetchPermits = prefetchPermits;
+	}
+
+	/**
+	 * 获取许可
+	 * @throws JedisConnectionException 连接Redis失败(不作为获取超时返回false)
+	 */
+	@Override
+	public boolean tryAcquire(int permits, long maxWait, TimeUnit waitUnit) {
+		if (permits <= 0 || permits > maxPermits) {
+			throw new IllegalArgumentException("permits must be between 1 and " + maxPermits + ".");
+		}
+
+		long tryAcquireDeadline = System.currentTimeMillis() + waitUnit.toMillis(maxWait);
+		RedisLockNotifier notifier = RedisLockNotifier.getInstance();
+		RedisLockNotifier.LockWaiter waiter = null;
+		boolean acquired = false;
+		try {
+			for (;;) {
+				if (doTryAcquire(permits)) {
+					acquired = true;
+					return true;
+				}
+
+				long remaining = tryAcquireDeadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				if (waiter == null) {
+					// 注册等待者后立即重试一次, 避免错过注册之前发出的释放通知
+					waiter = notifier.addWaiter(shardInfo(), semaphoreKey);
+					continue;
+				}
+				waiter.await(Math.min(remaining, FALLBACK_POLL_MILLIS));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (JedisConnectionException e) {
+			LOGGER.error("acquire permits of " + semaphoreKey + " failed", e);
+			throw e;
+		} catch (Exception e) {
+			LOGGER.error("acquire permits of " + semaphoreKey + " failed", e);
+		} finally {
+			if (waiter != null) {
+				notifier.removeWaiter(semaphoreKey, waiter);
+				if (acquired) {
+					// 可能还有剩余许可, 接力唤醒下一个本地等待者
+					notifier.onRelease(semaphoreKey);
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean tryAcquire(long maxWait, TimeUnit waitUnit) {
+		return tryAcquire(1, maxWait, waitUnit);
+	}
+
+	@Override
+	public void release(int permits) {
+		List<String> releasePermitIds = new ArrayList<>();
+		List<Permit> released = new ArrayList<>(permits);
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			for (int i = 0; i < permits && !heldPermits.isEmpty(); i++) {
+				Permit permit = heldPermits.pop();
+				released.add(permit);
+				if (cachedPermits.size() < prefetchPermits && permit.isAlive(now)) {
+					cachedPermits.push(permit);
+				} else {
+					releasePermitIds.add(permit.permitId);
+				}
+			}
+		}
+		// 缓存中的许可不续租, 由下一次发放前续期或由Redis按过期时间清理
+		RedisLockWatchdog watchdog = RedisLockWatchdog.getInstance();
+		for (Permit permit : released) {
+			watchdog.unwatch(shardInfo(), semaphoreKey, permit.permitId);
+		}
+
+		if (releasePermitIds.isEmpty()) {
+			// 许可回到本地缓存, 唤醒本地等待者
+			RedisLockNotifier.getInstance().onRelease(semaphoreKey);
+			return;
+		}
+
+		List<String> args = new ArrayList<>(releasePermitIds.size() + 1);
+		args.add(RedisLockNotifier.CHANNEL);
+		args.addAll(releasePermitIds);
+		execute(e -> e.getShard(semaphoreKey).eval(RedisLockScripts.RELEASE_PERMITS, Collections.singletonList(semaphoreKey), args));
+	}
+
+	@Override
+	public void release() {
+		release(1);
+	}
+
+	/**
+	 * 单次获取尝试: 优先使用本地缓存中租约充足的许可, 其余缓存许可续期后使用, 不足部分向Redis获取(附带预取)
+	 */
+	private boolean doTryAcquire(int permits) {
+		List<Permit> taken = new ArrayList<>(permits);
+		List<Permit> stale = new ArrayList<>();
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			while (taken.size() + stale.size() < permits && !cachedPermits.isEmpty()) {
+				Permit permit = cachedPermits.pop();
+				if (permit.isFresh(now, leaseMillis)) {
+					taken.add(permit);
+				} else if (permit.isAlive(now)) {
+					stale.add(permit);
+				}
+				// 已过期的缓存许可直接丢弃, 由Redis按过期时间清理
+			}
+			if (taken.size() == permits) {
+				hold(taken);
+				return true;
+			}
+		}
+
+		List<Permit> usable = new ArrayList<>(permits + prefetchPermits);
+		usable.addAll(taken);
+		try {
+			usable.addAll(acquireFromRedis(stale, permits - taken.size()));
+		} catch (RuntimeException e) {
+			// 本次未能续期的许可放回缓存, 下一次发放前再续期
+			synchronized (this) {
+				for (Permit permit : usable) {
+					cachedPermits.push(permit);
+				}
+				for (Permit permit : stale) {
+					cachedPermits.push(permit);
+				}
+			}
+			throw e;
+		}
+
+		synchronized (this) {
+			if (usable.size() < permits) {
+				for (Permit permit : usable) {
+					cachedPermits.push(permit);
+				}
+				return false;
+			}
+			hold(usable.subList(0, permits));
+			for (Permit permit : usable.subList(permits, usable.size())) {
+				cachedPermits.push(permit);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 发放许可并开始续租(调用方持有实例监视器)
+	 */
+	private void hold(List<Permit> permits) {
+		RedisLockWatchdog watchdog = RedisLockWatchdog.getInstance();
+		for (Permit permit : permits) {
+			heldPermits.push(permit);
+			watchdog.watchPermit(shardInfo(), semaphoreKey, permit.permitId, leaseMillis);
+		}
+	}
+
+	/**
+	 * 向Redis续期缓存许可并获取新许可(一次往返)
+	 * @param stale 待续期的缓存许可
+	 * @param need 需要的许可数, 续期成功的许可计入其中, 仍有缺少时新发放的许可附带预取数量
+	 * @return 续期成功的许可及新发放的许可, 可用许可不足时只有续期成功的许可
+	 */
+	private List<Permit> acquireFromRedis(List<Permit> stale, int need) {
+		long now = System.currentTimeMillis();
+		long expireAt = now + leaseMillis;
+		String batchPrefix = permitIdPrefix + batchSequence.incrementAndGet() + ":";
+		List<String> args = new ArrayList<>(7 + stale.size());
+		args.addAll(Arrays.asList(String.valueOf(now), String.valueOf(expireAt), String.valueOf(maxPermits),
+				String.valueOf(need), String.valueOf(prefetchPermits), batchPrefix, String.valueOf(leaseMillis)));
+		for (Permit permit : stale) {
+			args.add(permit.permitId);
+		}
+
+		Object result = execute(e -> e.getShard(semaphoreKey).eval(RedisLockScripts.ACQUIRE_PERMITS,
+				Collections.singletonList(semaphoreKey), args));
+		@SuppressWarnings("unchecked")
+		List<Long> replies = (List<Long>) result;
+
+		List<Permit> permits = new ArrayList<>();
+		for (int i = 0; i < stale.size(); i++) {
+			if (replies.get(i + 1) == 1L) {
+				permits.add(new Permit(stale.get(i).permitId, expireAt));
+			}
+		}
+		int granted = replies.get(0).intValue();
+		for (int i = 1; i <= granted; i++) {
+			permits.add(new Permit(batchPrefix + i, expireAt));
+		}
+		return permits;
+	}
+
+	private JedisShardInfo shardInfo() {
+		JedisShardInfo info = shardInfo;
+		if (info == null) {
+			info = shardInfo = execute(e -> e.getShardInfo(semaphoreKey));
+		}
+		return info;
+	}
+
+	private <T> T execute(RedisCallback<T, ShardedJedis> redisCallback) {
+		try (ShardedJedis shardedJedis = shardedJedisPool.getResource()) {
+			return redisCallback.callback(shardedJedis);
+		}
+	}
+
+	private static final class Permit {
+		private final String permitId;
+		private final long expireAt;
+
+		Permit(String permitId, long expireAt) {
+			this.permitId = permitId;
+			this.expireAt = expireAt;
+		}
+
+		/**
+		 * 剩余租约不少于三分之二时可直接发放: 发放后看门狗在三分之一租约内完成首次续租
+		 */
+		boolean isFresh(long now, long leaseMillis) {
+			return expireAt - now >= leaseMillis * 2 / 3;
+		}
+
+		boolean isAlive(long now) {
+			return expireAt > now;
+		}
+	}
+
+}
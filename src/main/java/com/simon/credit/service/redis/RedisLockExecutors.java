@@ -0,0 +1,26 @@
+package com.simon.credit.service.redis;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.simon.credit.service.DaemonThreadFactory;
+
+/**
+ * Redis分布式锁异步执行所需的共享线程池: 命令线程池执行短小的Redis命令, 定时器负责超时与兜底轮询,
+ * 等待中的加锁请求不占用任何线程
+ * @author XUZIMING 2026-10-18
+ */
+final class RedisLockExecutors {
+
+	/** Redis命令线程池 */
+	static final ExecutorService COMMAND_EXECUTOR = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory("redis-lock-command"));
+
+	/** 定时器 */
+	static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+			new DaemonThreadFactory("redis-lock-timer"));
+
+	private RedisLockExecutors() {}
+
+}
@@ -0,0 +1,467 @@
+package com.simon.credit.service.redis;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simon.credit.service.DaemonThreadFactory;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.JedisShardInfo;
+
+/**
+ * Redis分布式锁释放通知器<br>
+ * 每个JVM对每个Redis节点只保持一条订阅连接, 每个锁键使用各自的频道(通知频道前缀加锁键), 在这条连接上按需订阅/退订:
+ * 本地第一个等待者注册时订阅该锁键的频道, 最后一个等待者注销时退订, 只有等待该锁键的JVM收到通知<br>
+ * 订阅锁键频道的JVM数记录在锁键所在节点的等待者计数中, 释放锁的脚本只在计数大于0时发布通知, 没有等待者的释放不产生消息<br>
+ * 普通锁的消息内容为被释放的锁键, 唤醒本地队首等待者; 公平锁的消息内容为队首等待者的持有者令牌, 只唤醒该等待者<br>
+ * 等待者计数的更新及频道的订阅/退订按提交顺序在每个节点各自的单线程中执行, 注册等待者不阻塞调用线程
+ * @author XUZIMING 2026-10-18
+ */
+public final class RedisLockNotifier {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RedisLockNotifier.class);
+
+	/** 锁释放通知频道前缀, 锁键的频道为前缀加锁键 */
+	static final String CHANNEL = "redis_lock__channel:";
+
+	/** 等待者计数后缀, 锁键的等待者计数为锁键加后缀(与锁键在同一节点) */
+	static final String WAITERS_SUFFIX = ":waiters";
+
+	/** 订阅连接的固定频道(不发布消息), 退订全部锁键频道后连接仍保持订阅状态 */
+	private static final String ANCHOR_CHANNEL = "redis_lock__notifier";
+
+	/** 等待者计数的过期时间(毫秒), 进程崩溃未递减的计数最终被清除 */
+	private static final long WAITERS_EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+	/** 锁键持续有本地等待者时, 延长等待者计数过期时间的间隔(纳秒) */
+	private static final long WAITERS_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(WAITERS_EXPIRE_MILLIS / 2);
+
+	/** 订阅确认的最长等待时间(毫秒), 超时后视为已确认, 由兜底轮询保证不会一直等待 */
+	private static final long SUBSCRIBE_TIMEOUT_MILLIS = 1000L;
+
+	/** 订阅连接断开后的重连间隔(毫秒) */
+	private static final long RECONNECT_INTERVAL_MILLIS = 1000L;
+
+	private static final RedisLockNotifier INSTANCE = new RedisLockNotifier();
+
+	/** 订阅者(key: host:port) */
+	private final ConcurrentMap<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+	/** 本地等待者(key: 锁键) */
+	private final ConcurrentMap<String, Queue<LockWaiter>> waiters = new ConcurrentHashMap<>();
+
+	/** 公平锁本地等待者(key: 持有者令牌) */
+	private final ConcurrentMap<String, LockWaiter> tokenWaiters = new ConcurrentHashMap<>();
+
+	private RedisLockNotifier() {}
+
+	public static RedisLockNotifier getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 确保已建立到指定Redis节点的订阅连接
+	 * @param shardInfo 节点信息
+	 */
+	private Subscriber register(JedisShardInfo shardInfo) {
+		return subscribers.computeIfAbsent(nodeName(shardInfo), name -> {
+			Subscriber subscriber = new Subscriber(name, shardInfo);
+			subscriber.start();
+			return subscriber;
+		});
+	}
+
+	/**
+	 * 注册锁键等待者(同步方式: 等待订阅确认后返回)
+	 * @param shardInfo 锁键所在的Redis节点
+	 * @param lockKey 锁键
+	 * @return 等待者
+	 */
+	LockWaiter addWaiter(JedisShardInfo shardInfo, String lockKey) {
+		return addWaiter(shardInfo, lockKey, null);
+	}
+
+	/**
+	 * 注册锁键等待者(异步方式: 收到通知时回调监听器, 不占用等待线程)
+	 * @param shardInfo 锁键所在的Redis节点
+	 * @param lockKey 锁键
+	 * @param listener 通知监听器(在订阅线程中回调, 不可阻塞), 为null时通过{@link LockWaiter#await(long)}等待
+	 * @return 等待者(有监听器时立即返回, 订阅确认见{@link LockWaiter#subscribed()})
+	 */
+	LockWaiter addWaiter(JedisShardInfo shardInfo, String lockKey, Runnable listener) {
+		return addWaiter(shardInfo, lockKey, null, listener);
+	}
+
+	/**
+	 * 注册公平锁等待者: 只在排到队首时由内容为其持有者令牌的通知唤醒<br>
+	 * 订阅确认(最长{@link #SUBSCRIBE_TIMEOUT_MILLIS})之后发出的释放通知不会错过: 没有监听器时在本方法内等待确认,
+	 * 有监听器时立即返回, 调用方应在{@link LockWaiter#subscribed()}完成后再尝试一次加锁
+	 * @param shardInfo 锁键所在的Redis节点
+	 * @param lockKey 锁键
+	 * @param token 持有者令牌, 为null时按锁键唤醒
+	 * @param listener 通知监听器, 为null时通过{@link LockWaiter#await(long)}等待
+	 * @return 等待者
+	 */
+	LockWaiter addWaiter(JedisShardInfo shardInfo, String lockKey, String token, Runnable listener) {
+		Subscriber subscriber = register(shardInfo);
+
+		LockWaiter waiter = new LockWaiter(subscriber, token, listener);
+		if (token != null) {
+			tokenWaiters.put(token, waiter);
+		}
+		waiters.compute(lockKey, (key, queue) -> {
+			Queue<LockWaiter> result = queue != null ? queue : new ConcurrentLinkedQueue<>();
+			result.add(waiter);
+			return result;
+		});
+
+		waiter.subscribed = subscriber.addWaiter(lockKey);
+		if (listener == null) {
+			try {
+				waiter.subscribed.get(SUBSCRIBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | TimeoutException e) {
+				// 由兜底轮询保证唤醒
+			}
+		}
+		return waiter;
+	}
+
+	/**
+	 * 注销锁键等待者
+	 */
+	void removeWaiter(String lockKey, LockWaiter waiter) {
+		if (waiter.token != null) {
+			tokenWaiters.remove(waiter.token, waiter);
+		}
+		waiters.computeIfPresent(lockKey, (key, queue) -> {
+			queue.remove(waiter);
+			return queue.isEmpty() ? null : queue;
+		});
+		waiter.subscriber.removeWaiter(lockKey);
+	}
+
+	/**
+	 * 收到锁释放通知: 只唤醒队首等待者, 同一时刻只有一个线程能拿到锁;
+	 * 共享锁(读锁)加锁成功后也由本地调用, 逐个唤醒后续等待者
+	 */
+	void onRelease(String lockKey) {
+		Queue<LockWaiter> queue = waiters.get(lockKey);
+		if (queue == null) {
+			return;
+		}
+		LockWaiter head = queue.peek();
+		if (head != null) {
+			head.wake();
+		}
+	}
+
+	/**
+	 * 收到公平锁队首通知: 唤醒持有该令牌的等待者
+	 */
+	void onHeadGranted(String token) {
+		LockWaiter waiter = tokenWaiters.get(token);
+		if (waiter != null) {
+			waiter.wake();
+		}
+	}
+
+	/**
+	 * 订阅连接中断期间的通知可能丢失, 唤醒所有等待者重新竞争
+	 */
+	private void wakeAll() {
+		for (Queue<LockWaiter> queue : waiters.values()) {
+			for (LockWaiter waiter : queue) {
+				waiter.wake();
+			}
+		}
+	}
+
+	static String nodeName(JedisShardInfo shardInfo) {
+		return shardInfo.getHost() + ":" + shardInfo.getPort();
+	}
+
+	/**
+	 * 锁等待者
+	 */
+	static final class LockWaiter {
+		private final Semaphore signal = new Semaphore(0);
+
+		private final Subscriber subscriber;
+
+		private final String token;
+
+		private final Runnable listener;
+
+		/** 订阅确认 */
+		private volatile CompletableFuture<Void> subscribed;
+
+		private LockWaiter(Subscriber subscriber, String token, Runnable listener) {
+			this.subscriber = subscriber;
+			this.token = token;
+			this.listener = listener;
+		}
+
+		void wake() {
+			if (listener != null) {
+				listener.run();
+				return;
+			}
+
+			// 最多保留一个许可, 避免通知堆积
+			if (signal.availablePermits() == 0) {
+				signal.release();
+			}
+		}
+
+		/**
+		 * 订阅确认: 锁键频道订阅成功、连接断开或超过{@link #SUBSCRIBE_TIMEOUT_MILLIS}时完成, 不会异常完成
+		 */
+		CompletableFuture<Void> subscribed() {
+			return subscribed;
+		}
+
+		/**
+		 * 等待释放通知
+		 * @param timeoutMillis 最长等待时间(毫秒)
+		 * @return true:收到通知; false:等待超时
+		 */
+		boolean await(long timeoutMillis) throws InterruptedException {
+			return signal.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * 单个Redis节点的订阅线程: 在一条订阅连接上按本地等待者订阅/退订锁键频道, 并维护这些锁键的等待者计数<br>
+	 * 监视器内只决定状态变化并按顺序提交命令, Redis往返在节点的命令线程中执行
+	 */
+	private final class Subscriber extends Thread {
+		private final JedisShardInfo shardInfo;
+
+		private final JedisShardInfo subscribeShardInfo;
+
+		/** 等待者计数及频道订阅命令线程(单线程, 保证同一锁键的登记与注销按提交顺序执行) */
+		private final ExecutorService commandExecutor;
+
+		/** 已订阅的锁键(以下字段由订阅者的监视器保护) */
+		private final Map<String, Subscription> subscriptions = new HashMap<>();
+
+		/** 当前订阅连接, 连接断开期间为null */
+		private JedisPubSub pubSub;
+
+		/** 维护等待者计数的命令连接(只在命令线程中使用) */
+		private Jedis commandJedis;
+
+		Subscriber(String nodeName, JedisShardInfo shardInfo) {
+			super("redis-lock-notifier-" + nodeName);
+			setDaemon(true);
+			this.shardInfo = shardInfo;
+			this.commandExecutor = Executors.newSingleThreadExecutor(new DaemonThreadFactory("redis-lock-waiters-" + nodeName));
+			// 订阅连接须阻塞读取, 读超时设置为0
+			this.subscribeShardInfo = new JedisShardInfo(shardInfo.getHost(), shardInfo.getPort(),
+					shardInfo.getConnectionTimeout(), 0, 1);
+			this.subscribeShardInfo.setPassword(shardInfo.getPassword());
+		}
+
+		/**
+		 * 本地等待者加1: 第一个等待者登记等待者计数并订阅锁键频道, 之后每隔一段时间延长等待者计数的过期时间
+		 * @return 订阅确认(连接断开期间立即完成, 由重连后的重新订阅及兜底轮询保证唤醒)
+		 */
+		synchronized CompletableFuture<Void> addWaiter(String lockKey) {
+			long now = System.nanoTime();
+			Subscription subscription = subscriptions.get(lockKey);
+			if (subscription != null) {
+				subscription.waiters++;
+				if (now - subscription.refreshedNanos >= WAITERS_REFRESH_NANOS) {
+					subscription.refreshedNanos = now;
+					commandExecutor.execute(() -> command(jedis -> jedis.pexpire(lockKey + WAITERS_SUFFIX, WAITERS_EXPIRE_MILLIS)));
+				}
+				return subscription.subscribed;
+			}
+
+			Subscription created = new Subscription(now);
+			subscriptions.put(lockKey, created);
+			// 超时后视为已确认
+			RedisLockExecutors.TIMER.schedule(() -> created.subscribed.complete(null), SUBSCRIBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			commandExecutor.execute(() -> {
+				// 先登记等待者计数再订阅, 订阅确认之后的释放都会发布通知
+				command(jedis -> jedis.eval(RedisLockScripts.REGISTER_WAITER, Collections.singletonList(lockKey + WAITERS_SUFFIX),
+						Collections.singletonList(String.valueOf(WAITERS_EXPIRE_MILLIS))));
+				JedisPubSub connected = currentPubSub();
+				if (connected == null) {
+					created.subscribed.complete(null);
+					return;
+				}
+				try {
+					connected.subscribe(CHANNEL + lockKey);
+				} catch (Exception e) {
+					// 连接已断开, 重连后重新订阅
+					created.subscribed.complete(null);
+				}
+			});
+			return created.subscribed;
+		}
+
+		/**
+		 * 本地等待者减1: 最后一个等待者注销时退订锁键频道并递减等待者计数
+		 */
+		void removeWaiter(String lockKey) {
+			Subscription subscription;
+			synchronized (this) {
+				subscription = subscriptions.get(lockKey);
+				if (subscription == null || --subscription.waiters > 0) {
+					return;
+				}
+				subscriptions.remove(lockKey);
+				commandExecutor.execute(() -> {
+					JedisPubSub connected = currentPubSub();
+					if (connected != null) {
+						try {
+							connected.unsubscribe(CHANNEL + lockKey);
+						} catch (Exception e) {
+							// 连接已断开, 重连后不再订阅
+						}
+					}
+					command(jedis -> jedis.eval(RedisLockScripts.UNREGISTER_WAITER, Collections.singletonList(lockKey + WAITERS_SUFFIX),
+							Collections.<String>emptyList()));
+				});
+			}
+			subscription.subscribed.complete(null);
+		}
+
+		private synchronized JedisPubSub currentPubSub() {
+			return pubSub;
+		}
+
+		/**
+		 * 在命令连接上执行等待者计数命令(只在命令线程中调用), 失败时只记录日志: 计数偏小时由兜底轮询唤醒, 偏大时多发布的通知随计数过期消失
+		 */
+		private void command(RedisCallback<Object, Jedis> callback) {
+			try {
+				if (commandJedis == null) {
+					commandJedis = new Jedis(shardInfo);
+				}
+				callback.callback(commandJedis);
+			} catch (Exception e) {
+				LOGGER.warn("redis lock waiters update on {} failed: {}", getName(), e.getMessage());
+				if (commandJedis != null) {
+					commandJedis.close();
+					commandJedis = null;
+				}
+			}
+		}
+
+		/**
+		 * 订阅连接(重新)建立: 在命令线程中订阅当前全部锁键的频道(与登记/注销按提交顺序执行)
+		 */
+		private synchronized void onConnected(JedisPubSub connected) {
+			pubSub = connected;
+			if (subscriptions.isEmpty()) {
+				return;
+			}
+			String[] channels = new String[subscriptions.size()];
+			int i = 0;
+			for (String lockKey : subscriptions.keySet()) {
+				channels[i++] = CHANNEL + lockKey;
+			}
+			commandExecutor.execute(() -> {
+				try {
+					connected.subscribe(channels);
+				} catch (Exception e) {
+					// 连接已断开, 重连后重新订阅
+				}
+			});
+		}
+
+		private void onSubscribed(String lockKey) {
+			Subscription subscription;
+			synchronized (this) {
+				subscription = subscriptions.get(lockKey);
+			}
+			// 在监视器之外完成, 等待确认的回调不占用监视器
+			if (subscription != null) {
+				subscription.subscribed.complete(null);
+			}
+		}
+
+		private synchronized void onDisconnected() {
+			pubSub = null;
+		}
+
+		@Override
+		public void run() {
+			for (;;) {
+				Jedis jedis = new Jedis(subscribeShardInfo);
+				try {
+					jedis.subscribe(new JedisPubSub() {
+						@Override
+						public void onSubscribe(String channel, int subscribedChannels) {
+							if (ANCHOR_CHANNEL.equals(channel)) {
+								onConnected(this);
+							} else {
+								onSubscribed(channel.substring(CHANNEL.length()));
+							}
+						}
+
+						@Override
+						public void onMessage(String channel, String message) {
+							String lockKey = channel.substring(CHANNEL.length());
+							if (lockKey.equals(message)) {
+								onRelease(lockKey);
+							} else {
+								onHeadGranted(message);
+							}
+						}
+					}, ANCHOR_CHANNEL);
+				} catch (Exception e) {
+					LOGGER.warn("redis lock subscription to {} interrupted: {}", getName(), e.getMessage());
+				} finally {
+					onDisconnected();
+					jedis.close();
+				}
+
+				wakeAll();
+				try {
+					Thread.sleep(RECONNECT_INTERVAL_MILLIS);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 单个锁键的订阅状态
+	 */
+	private static final class Subscription {
+		/** 本地等待者数 */
+		private int waiters = 1;
+
+		/** 最近一次登记或延长等待者计数的时间(System.nanoTime) */
+		private long refreshedNanos;
+
+		/** 订阅确认 */
+		private final CompletableFuture<Void> subscribed = new CompletableFuture<>();
+
+		Subscription(long refreshedNanos) {
+			this.refreshedNanos = refreshedNanos;
+		}
+	}
+
+}
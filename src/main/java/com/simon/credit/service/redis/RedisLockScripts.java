@@ -0,0 +1,351 @@
+package com.simon.credit.service.redis;
+
+/**
+ * Redis分布式锁LUA脚本
+ * @author XUZIMING 2026-10-18
+ */
+final class RedisLockScripts {
+
+	/**
+	 * 加锁: 锁键不存在时设置持有者令牌及租约, 并递增该锁的防护令牌计数器<br>
+	 * 成功返回{1, 防护令牌}, 失败返回{0, 当前持有者的剩余租约(毫秒)}<br>
+	 * KEYS[1]: 锁键; KEYS[2]: 防护令牌计数器; ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒)
+	 */
+	static final String ACQUIRE_LOCK =
+			"if (redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2])) " +
+			"then " +
+				"return {1, redis.call('incr', KEYS[2])}; " +
+			"end; " +
+			"return {0, redis.call('pttl', KEYS[1])};";
+
+	/**
+	 * 释放锁: 仅当锁值等于持有者令牌时删除, 有等待者时发布锁释放通知<br>
+	 * KEYS[1]: 锁键; ARGV[1]: 持有者令牌; ARGV[2]: 通知频道前缀
+	 */
+	static final String RELEASE_LOCK =
+			"if (redis.call('get', KEYS[1]) == ARGV[1]) " +
+			"then " +
+				"redis.call('del', KEYS[1]); " +
+				publishIfWaiting("KEYS[1]", "ARGV[2]", "KEYS[1]") +
+				"return 1; " +
+			"end; " +
+			"return 0;";
+
+	/**
+	 * 公平加锁: 先清理排队超时的等待者, 锁空闲且队列为空或自己排在队首时加锁并发放防护令牌,
+	 * 否则按先来后到入队(已在队列中则保持原位置)并刷新自己的排队超时时间<br>
+	 * 成功返回{1, 防护令牌}, 失败返回{0, 当前持有者的剩余租约(毫秒, 锁空闲时为负数)}<br>
+	 * KEYS[1]: 锁键; KEYS[2]: 防护令牌计数器; KEYS[3]: 排队队列(score为入队序号); KEYS[4]: 排队超时(score为截止时间)<br>
+	 * ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒); ARGV[3]: 排队超时时间(毫秒); ARGV[4]: 当前时间(毫秒)
+	 */
+	static final String ACQUIRE_FAIR_LOCK =
+			"local expired = redis.call('zrangebyscore', KEYS[4], '-inf', ARGV[4]); " +
+			"for i = 1, #expired do " +
+				"redis.call('zrem', KEYS[3], expired[i]); " +
+				"redis.call('zrem', KEYS[4], expired[i]); " +
+			"end; " +
+			"if (redis.call('exists', KEYS[1]) == 0) " +
+			"then " +
+				"local head = redis.call('zrange', KEYS[3], 0, 0)[1]; " +
+				"if (head == nil or head == ARGV[1]) " +
+				"then " +
+					"redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]); " +
+					"redis.call('zrem', KEYS[3], ARGV[1]); " +
+					"redis.call('zrem', KEYS[4], ARGV[1]); " +
+					"return {1, redis.call('incr', KEYS[2])}; " +
+				"end; " +
+			"end; " +
+			"if (redis.call('zscore', KEYS[3], ARGV[1]) == false) " +
+			"then " +
+				"local tail = redis.call('zrange', KEYS[3], -1, -1, 'WITHSCORES'); " +
+				"local seq = 1; " +
+				"if (tail[2]) then seq = tonumber(tail[2]) + 1; end; " +
+				"redis.call('zadd', KEYS[3], seq, ARGV[1]); " +
+			"end; " +
+			"redis.call('zadd', KEYS[4], tonumber(ARGV[4]) + tonumber(ARGV[3]), ARGV[1]); " +
+			"return {0, redis.call('pttl', KEYS[1])};";
+
+	/**
+	 * 公平释放锁: 仅当锁值等于持有者令牌时删除, 清理排队超时的等待者后只通知队首等待者(消息内容为其持有者令牌)<br>
+	 * KEYS[1]: 锁键; KEYS[2]: 排队队列; KEYS[3]: 排队超时; ARGV[1]: 持有者令牌; ARGV[2]: 通知频道前缀; ARGV[3]: 当前时间(毫秒)
+	 */
+	static final String RELEASE_FAIR_LOCK =
+			"if (redis.call('get', KEYS[1]) ~= ARGV[1]) " +
+			"then " +
+				"return 0; " +
+			"end; " +
+			"redis.call('del', KEYS[1]); " +
+			"local expired = redis.call('zrangebyscore', KEYS[3], '-inf', ARGV[3]); " +
+			"for i = 1, #expired do " +
+				"redis.call('zrem', KEYS[2], expired[i]); " +
+				"redis.call('zrem', KEYS[3], expired[i]); " +
+			"end; " +
+			"local head = redis.call('zrange', KEYS[2], 0, 0)[1]; " +
+			"if (head) then " + publishIfWaiting("KEYS[1]", "ARGV[2]", "head") + "end; " +
+			"return 1;";
+
+	/**
+	 * 放弃公平排队: 移出队列, 锁空闲时通知新的队首等待者<br>
+	 * KEYS[1]: 锁键; KEYS[2]: 排队队列; KEYS[3]: 排队超时; ARGV[1]: 持有者令牌; ARGV[2]: 通知频道前缀
+	 */
+	static final String CANCEL_FAIR_WAIT =
+			"redis.call('zrem', KEYS[2], ARGV[1]); " +
+			"redis.call('zrem', KEYS[3], ARGV[1]); " +
+			"if (redis.call('exists', KEYS[1]) == 0) " +
+			"then " +
+				"local head = redis.call('zrange', KEYS[2], 0, 0)[1]; " +
+				"if (head) then " + publishIfWaiting("KEYS[1]", "ARGV[2]", "head") + "end; " +
+			"end; " +
+			"return 1;";
+
+	/**
+	 * 续租: 仅当锁值等于持有者令牌时重置过期时间<br>
+	 * KEYS[1]: 锁键; ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒)<br>
+	 * 返回字符串'1'/'0'(管道模式下jedis按字符串解析eval的返回值)
+	 */
+	static final String RENEW_LOCK =
+			"if (redis.call('get', KEYS[1]) == ARGV[1]) " +
+			"then " +
+				"redis.call('pexpire', KEYS[1], ARGV[2]); " +
+				"return '1'; " +
+			"end; " +
+			"return '0';";
+
+	/**
+	 * 批量加锁(全部成功或全部失败): 任一锁键已存在则不加锁<br>
+	 * KEYS: 同一节点上的锁键; ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒)<br>
+	 * 返回{1}表示加锁成功; 失败时返回{0, 第一个已存在的锁键序号(从1开始), 该锁键的剩余租约(毫秒)}
+	 */
+	static final String ACQUIRE_MULTI_LOCK =
+			"for i = 1, #KEYS do " +
+				"if (redis.call('exists', KEYS[i]) == 1) " +
+				"then " +
+					"return {0, i, redis.call('pttl', KEYS[i])}; " +
+				"end; " +
+			"end; " +
+			"for i = 1, #KEYS do " +
+				"redis.call('set', KEYS[i], ARGV[1], 'PX', ARGV[2]); " +
+			"end; " +
+			"return {1};";
+
+	/**
+	 * 批量释放锁: 只删除值等于持有者令牌的锁键, 有等待者的锁键逐个发布锁释放通知<br>
+	 * KEYS: 同一节点上的锁键; ARGV[1]: 持有者令牌; ARGV[2]: 通知频道前缀
+	 */
+	static final String RELEASE_MULTI_LOCK =
+			"local released = 0; " +
+			"for i = 1, #KEYS do " +
+				"if (redis.call('get', KEYS[i]) == ARGV[1]) " +
+				"then " +
+					"redis.call('del', KEYS[i]); " +
+					publishIfWaiting("KEYS[i]", "ARGV[2]", "KEYS[i]") +
+					"released = released + 1; " +
+				"end; " +
+			"end; " +
+			"return released;";
+
+	/**
+	 * 法定人数锁-单节点加锁: 锁键不存在时设置持有者令牌及租约, 锁键已是自己的令牌(之前迟到的加锁)时重置租约<br>
+	 * KEYS[1]: 锁键; ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒)<br>
+	 * 返回1表示本节点加锁成功, 0表示锁被他人持有
+	 */
+	static final String ACQUIRE_QUORUM_LOCK =
+			"if (redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2])) " +
+			"then " +
+				"return 1; " +
+			"end; " +
+			"if (redis.call('get', KEYS[1]) == ARGV[1]) " +
+			"then " +
+				"redis.call('pexpire', KEYS[1], ARGV[2]); " +
+				"return 1; " +
+			"end; " +
+			"return 0;";
+
+	/**
+	 * 读写锁-加读锁: 写锁被持有, 或有写者等待(且当前读者尚未持有读锁)时失败<br>
+	 * KEYS[1]: 锁键(hash); KEYS[2]: 写者等待标记; ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒)
+	 */
+	static final String ACQUIRE_READ_LOCK =
+			"if (redis.call('hget', KEYS[1], 'mode') == 'write') " +
+			"then " +
+				"return 0; " +
+			"end; " +
+			"if (redis.call('hexists', KEYS[1], ARGV[1]) == 0 and redis.call('exists', KEYS[2]) == 1) " +
+			"then " +
+				"return 0; " +
+			"end; " +
+			"redis.call('hset', KEYS[1], 'mode', 'read'); " +
+			"redis.call('hincrby', KEYS[1], ARGV[1], 1); " +
+			"redis.call('pexpire', KEYS[1], ARGV[2]); " +
+			"return 1;";
+
+	/**
+	 * 读写锁-加写锁: 锁空闲或自己已持有写锁时成功(并清除自己的等待标记), 否则设置写者等待标记<br>
+	 * KEYS[1]: 锁键(hash); KEYS[2]: 写者等待标记; ARGV[1]: 持有者令牌; ARGV[2]: 租约时间(毫秒); ARGV[3]: 等待标记有效期(毫秒)
+	 */
+	static final String ACQUIRE_WRITE_LOCK =
+			"local mode = redis.call('hget', KEYS[1], 'mode'); " +
+			"if (mode == false or (mode == 'write' and redis.call('hexists', KEYS[1], ARGV[1]) == 1)) " +
+			"then " +
+				"redis.call('hset', KEYS[1], 'mode', 'write'); " +
+				"redis.call('hincrby', KEYS[1], ARGV[1], 1); " +
+				"redis.call('pexpire', KEYS[1], ARGV[2]); " +
+				"if (redis.call('get', KEYS[2]) == ARGV[1]) " +
+				"then " +
+					"redis.call('del', KEYS[2]); " +
+				"end; " +
+				"return 1; " +
+			"end; " +
+			"redis.call('set', KEYS[2], ARGV[1], 'PX', ARGV[3]); " +
+			"return 0;";
+
+	/**
+	 * 读写锁-写者放弃等待: 清除自己设置的写者等待标记, 并通知被挡住的读者<br>
+	 * KEYS[1]: 锁键(hash); KEYS[2]: 写者等待标记; ARGV[1]: 持有者令牌; ARGV[2]: 通知频道前缀
+	 */
+	static final String CANCEL_WRITE_INTENT =
+			"if (redis.call('get', KEYS[2]) == ARGV[1]) " +
+			"then " +
+				"redis.call('del', KEYS[2]); " +
+				publishIfWaiting("KEYS[1]", "ARGV[2]", "KEYS[1]") +
+				"return 1; " +
+			"end; " +
+			"return 0;";
+
+	/**
+	 * 读写锁-释放(读锁与写锁共用): 重入计数归零且没有其它持有者时删除锁键, 有等待者时发布锁释放通知<br>
+	 * KEYS[1]: 锁键(hash); ARGV[1]: 持有者令牌; ARGV[2]: 通知频道前缀
+	 */
+	static final String RELEASE_READ_WRITE_LOCK =
+			"if (redis.call('hexists', KEYS[1], ARGV[1]) == 0) " +
+			"then " +
+				"return 0; " +
+			"end; " +
+			"if (redis.call('hincrby', KEYS[1], ARGV[1], -1) > 0) " +
+			"then " +
+				"return 1; " +
+			"end; " +
+			"redis.call('hdel', KEYS[1], ARGV[1]); " +
+			"if (redis.call('hlen', KEYS[1]) <= 1) " +
+			"then " +
+				"redis.call('del', KEYS[1]); " +
+				publishIfWaiting("KEYS[1]", "ARGV[2]", "KEYS[1]") +
+			"end; " +
+			"return 1;";
+
+	/**
+	 * 信号量-获取许可: 先清理已过期的许可, 再将本地缓存中待复用的许可续期(仅许可仍在池中时),
+	 * 续期后仍缺少的许可数不为0且可用许可足够时发放新许可(附带预取数量)<br>
+	 * KEYS[1]: 许可池(zset, score为许可过期时间); ARGV[1]: 当前时间(毫秒); ARGV[2]: 许可过期时间(毫秒);
+	 * ARGV[3]: 许可总数; ARGV[4]: 需要的许可数; ARGV[5]: 预取数量; ARGV[6]: 许可编号前缀; ARGV[7]: 租约时间(毫秒);
+	 * ARGV[8..n]: 待续期的许可编号<br>
+	 * 返回数组: 第1个元素为新发放的许可数量(许可编号为前缀加序号1..n), 其后依次为各待续期许可是否续期成功(1/0)
+	 */
+	static final String ACQUIRE_PERMITS =
+			"redis.call('zremrangebyscore', KEYS[1], '-inf', ARGV[1]); " +
+			"local result = {0}; " +
+			"local refreshed = 0; " +
+			"for i = 8, #ARGV do " +
+				"if (redis.call('zscore', KEYS[1], ARGV[i])) " +
+				"then " +
+					"redis.call('zadd', KEYS[1], 'XX', ARGV[2], ARGV[i]); " +
+					"refreshed = refreshed + 1; " +
+					"result[#result + 1] = 1; " +
+				"else " +
+					"result[#result + 1] = 0; " +
+				"end; " +
+			"end; " +
+			"local need = tonumber(ARGV[4]) - refreshed; " +
+			"if (need > 0) " +
+			"then " +
+				"local available = tonumber(ARGV[3]) - redis.call('zcard', KEYS[1]); " +
+				"if (available >= need) " +
+				"then " +
+					"local granted = math.min(available, need + tonumber(ARGV[5])); " +
+					"for i = 1, granted do " +
+						"redis.call('zadd', KEYS[1], ARGV[2], ARGV[6] .. i); " +
+					"end; " +
+					"result[1] = granted; " +
+				"end; " +
+			"end; " +
+			"redis.call('pexpire', KEYS[1], ARGV[7]); " +
+			"return result;";
+
+	/**
+	 * 信号量-续租许可: 仅当许可仍在池中时更新过期时间<br>
+	 * KEYS[1]: 许可池; ARGV[1]: 许可编号; ARGV[2]: 许可过期时间(毫秒); ARGV[3]: 租约时间(毫秒)<br>
+	 * 返回字符串'1'/'0'(管道模式下jedis按字符串解析eval的返回值)
+	 */
+	static final String RENEW_PERMIT =
+			"if (redis.call('zscore', KEYS[1], ARGV[1])) " +
+			"then " +
+				"redis.call('zadd', KEYS[1], 'XX', ARGV[2], ARGV[1]); " +
+				"if (redis.call('pttl', KEYS[1]) < tonumber(ARGV[3])) " +
+				"then " +
+					"redis.call('pexpire', KEYS[1], ARGV[3]); " +
+				"end; " +
+				"return '1'; " +
+			"end; " +
+			"return '0';";
+
+	/**
+	 * 信号量-归还许可, 有等待者时发布许可释放通知<br>
+	 * KEYS[1]: 许可池; ARGV[1]: 通知频道前缀; ARGV[2..n]: 许可编号
+	 */
+	static final String RELEASE_PERMITS =
+			"local released = 0; " +
+			"for i = 2, #ARGV do " +
+				"released = released + redis.call('zrem', KEYS[1], ARGV[i]); " +
+			"end; " +
+			publishIfWaiting("KEYS[1]", "ARGV[1]", "KEYS[1]") +
+			"return released;";
+
+	/**
+	 * 发布锁释放通知(非令牌模式删除锁键之后): 有等待者时发布<br>
+	 * KEYS[1]: 锁键; ARGV[1]: 通知频道前缀
+	 */
+	static final String PUBLISH_RELEASE =
+			publishIfWaiting("KEYS[1]", "ARGV[1]", "KEYS[1]") +
+			"return 1;";
+
+	/**
+	 * 登记订阅了锁键频道的JVM: 等待者计数加1并延长过期时间<br>
+	 * KEYS[1]: 等待者计数; ARGV[1]: 过期时间(毫秒)
+	 */
+	static final String REGISTER_WAITER =
+			"local count = redis.call('incr', KEYS[1]); " +
+			"if (redis.call('pttl', KEYS[1]) < tonumber(ARGV[1])) " +
+			"then " +
+				"redis.call('pexpire', KEYS[1], ARGV[1]); " +
+			"end; " +
+			"return count;";
+
+	/**
+	 * 注销订阅了锁键频道的JVM: 等待者计数减1, 归零时删除<br>
+	 * KEYS[1]: 等待者计数
+	 */
+	static final String UNREGISTER_WAITER =
+			"local count = redis.call('decr', KEYS[1]); " +
+			"if (count <= 0) " +
+			"then " +
+				"redis.call('del', KEYS[1]); " +
+			"end; " +
+			"return count;";
+
+	/**
+	 * 脚本片段: 锁键的等待者计数大于0(有JVM订阅了该锁键的频道)时, 向通知频道前缀加锁键的频道发布消息;
+	 * 等待者计数与锁键在同一节点, 由脚本根据锁键拼出
+	 * @param lockKey 锁键(LUA表达式)
+	 * @param channelPrefix 通知频道前缀(LUA表达式)
+	 * @param message 消息内容(LUA表达式)
+	 */
+	private static String publishIfWaiting(String lockKey, String channelPrefix, String message) {
+		return "if ((tonumber(redis.call('get', " + lockKey + " .. '" + RedisLockNotifier.WAITERS_SUFFIX + "')) or 0) > 0) " +
+				"then " +
+					"redis.call('publish', " + channelPrefix + " .. " + lockKey + ", " + message + "); " +
+				"end; ";
+	}
+
+	private RedisLockScripts() {}
+
+}
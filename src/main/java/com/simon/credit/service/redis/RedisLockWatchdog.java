@@ -0,0 +1,216 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simon.credit.service.DaemonThreadFactory;
+import com.simon.credit.service.DistributedLock;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+/**
+ * Redis分布式锁看门狗<br>
+ * 整个JVM共用一个调度线程, 每个周期对每个Redis节点只发起一次管道调用, 批量续租该节点上仍被持有的全部锁及信号量许可;
+ * 续租周期为当前最短租约的三分之一(不超过默认周期), 注册更短的租约时提前下一次续租
+ * @author XUZIMING 2026-10-18
+ */
+public final class RedisLockWatchdog {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RedisLockWatchdog.class);
+
+	/** 默认续租周期(默认租约的三分之一, 即1000毫秒) */
+	private static final long DEFAULT_RENEW_INTERVAL_MILLIS = DistributedLock.LOCK_MAX_WAIT_MILLISECONDS / 3;
+
+	/** 最短续租周期(毫秒) */
+	private static final long MIN_RENEW_INTERVAL_MILLIS = 10L;
+
+	/** 可由看门狗续租的最短租约(毫秒) */
+	static final long MIN_LEASE_MILLIS = MIN_RENEW_INTERVAL_MILLIS * 3;
+
+	private static final RedisLockWatchdog INSTANCE = new RedisLockWatchdog();
+
+	/** 各节点上被持有的锁(key: host:port) */
+	private final ConcurrentMap<String, NodeLeases> nodes = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService scheduler;
+
+	/** 下一次续租任务及其执行时间(System.nanoTime), 由实例监视器保护 */
+	private ScheduledFuture<?> nextRenewal;
+	private long nextRenewalNanos;
+
+	private RedisLockWatchdog() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("redis-lock-watchdog"));
+		scheduleRenewal(DEFAULT_RENEW_INTERVAL_MILLIS);
+	}
+
+	public static RedisLockWatchdog getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 开始续租
+	 * @param shardInfo 锁键所在的Redis节点
+	 * @param lockKey 锁键
+	 * @param lockToken 持有者令牌
+	 * @param leaseMillis 每次续租后的租约时间(毫秒), 不小于{@link #MIN_LEASE_MILLIS}
+	 */
+	void watch(JedisShardInfo shardInfo, String lockKey, String lockToken, long leaseMillis) {
+		nodes.computeIfAbsent(RedisLockNotifier.nodeName(shardInfo), name -> new NodeLeases(shardInfo))
+			 .leases.put(lockKey + "\n" + lockToken, new Lease(lockKey, lockToken, leaseMillis, false));
+		// 首次续租须在租约的三分之一之内发生
+		scheduleRenewal(renewIntervalOf(leaseMillis));
+	}
+
+	/**
+	 * 开始续租信号量许可
+	 * @param shardInfo 许可池所在的Redis节点
+	 * @param semaphoreKey 许可池键
+	 * @param permitId 许可编号
+	 * @param leaseMillis 每次续租后的租约时间(毫秒), 不小于{@link #MIN_LEASE_MILLIS}
+	 */
+	void watchPermit(JedisShardInfo shardInfo, String semaphoreKey, String permitId, long leaseMillis) {
+		nodes.computeIfAbsent(RedisLockNotifier.nodeName(shardInfo), name -> new NodeLeases(shardInfo))
+			 .leases.put(semaphoreKey + "\n" + permitId, new Lease(semaphoreKey, permitId, leaseMillis, true));
+		scheduleRenewal(renewIntervalOf(leaseMillis));
+	}
+
+	/**
+	 * 停止续租(锁或信号量许可)
+	 */
+	void unwatch(JedisShardInfo shardInfo, String lockKey, String lockToken) {
+		NodeLeases nodeLeases = nodes.get(RedisLockNotifier.nodeName(shardInfo));
+		if (nodeLeases != null) {
+			nodeLeases.leases.remove(lockKey + "\n" + lockToken);
+		}
+	}
+
+	private void renewAll() {
+		synchronized (this) {
+			nextRenewal = null;
+		}
+
+		long interval = DEFAULT_RENEW_INTERVAL_MILLIS;
+		try {
+			for (NodeLeases nodeLeases : nodes.values()) {
+				try {
+					nodeLeases.renew();
+				} catch (Exception e) {
+					LOGGER.warn("redis lock lease renewal failed: {}", e.getMessage());
+					nodeLeases.closeConnection();
+				}
+				for (Lease lease : nodeLeases.leases.values()) {
+					interval = Math.min(interval, renewIntervalOf(lease.leaseMillis));
+				}
+			}
+		} finally {
+			scheduleRenewal(interval);
+		}
+	}
+
+	/**
+	 * 安排下一次续租, 已安排的续租更早时保持不变
+	 */
+	private synchronized void scheduleRenewal(long delayMillis) {
+		long renewalNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+		if (nextRenewal != null) {
+			if (nextRenewalNanos - renewalNanos <= 0) {
+				return;
+			}
+			nextRenewal.cancel(false);
+		}
+		nextRenewalNanos = renewalNanos;
+		nextRenewal = scheduler.schedule(this::renewAll, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private static long renewIntervalOf(long leaseMillis) {
+		return Math.max(MIN_RENEW_INTERVAL_MILLIS, Math.min(DEFAULT_RENEW_INTERVAL_MILLIS, leaseMillis / 3));
+	}
+
+	/**
+	 * 单个Redis节点上被持有的锁, 连接仅由调度线程使用
+	 */
+	private static final class NodeLeases {
+		private final JedisShardInfo shardInfo;
+		private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+		private Jedis jedis;
+
+		NodeLeases(JedisShardInfo shardInfo) {
+			this.shardInfo = shardInfo;
+		}
+
+		void renew() {
+			if (leases.isEmpty()) {
+				return;
+			}
+
+			if (jedis == null) {
+				jedis = new Jedis(shardInfo);
+			}
+
+			List<Map.Entry<String, Lease>> entries = new ArrayList<>(leases.entrySet());
+			List<Response<String>> responses = new ArrayList<>(entries.size());
+			Pipeline pipeline = jedis.pipelined();
+			for (Map.Entry<String, Lease> entry : entries) {
+				Lease lease = entry.getValue();
+				if (lease.permit) {
+					long expireAt = System.currentTimeMillis() + lease.leaseMillis;
+					responses.add(pipeline.eval(RedisLockScripts.RENEW_PERMIT, Collections.singletonList(lease.lockKey),
+							Arrays.asList(lease.lockToken, String.valueOf(expireAt), String.valueOf(lease.leaseMillis))));
+				} else {
+					responses.add(pipeline.eval(RedisLockScripts.RENEW_LOCK, Collections.singletonList(lease.lockKey),
+							Arrays.asList(lease.lockToken, String.valueOf(lease.leaseMillis))));
+				}
+			}
+			pipeline.sync();
+
+			for (int i = 0; i < entries.size(); i++) {
+				// 锁或许可已不属于当前持有者(已过期或已被释放), 停止续租
+				if ("0".equals(responses.get(i).get())) {
+					Map.Entry<String, Lease> entry = entries.get(i);
+					if (leases.remove(entry.getKey(), entry.getValue())) {
+						LOGGER.warn("redis lock lease lost, key: {}", entry.getValue().lockKey);
+					}
+				}
+			}
+		}
+
+		void closeConnection() {
+			if (jedis != null) {
+				jedis.close();
+				jedis = null;
+			}
+		}
+	}
+
+	/**
+	 * 锁租约(锁键+持有者令牌)或许可租约(许可池键+许可编号)
+	 */
+	private static final class Lease {
+		private final String lockKey;
+		private final String lockToken;
+		private final long leaseMillis;
+		private final boolean permit;
+
+		Lease(String lockKey, String lockToken, long leaseMillis, boolean permit) {
+			this.lockKey = lockKey;
+			this.lockToken = lockToken;
+			this.leaseMillis = leaseMillis;
+			this.permit = permit;
+		}
+	}
+
+}
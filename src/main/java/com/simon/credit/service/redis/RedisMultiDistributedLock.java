@@ -0,0 +1,188 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.lock.LockRetryPolicies;
+import com.simon.credit.service.lock.LockRetryPolicy;
+import com.simon.credit.service.redis.RedisDistributedLock.JedisWrapper;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ShardedJedis;
+
+/**
+ * Redis多资源分布式锁<br>
+ * 一次锁定一组锁键, 全部成功或全部失败: 锁键按节点分组, 按规范顺序(节点名、锁键字典序)逐个节点执行一次批量加锁脚本,
+ * 某个节点失败则回滚已锁定的节点; 释放锁时每个节点只执行一次批量释放脚本<br>
+ * 获取不到锁时阻塞在本地等待者上, 由阻塞本次加锁的锁键的释放通知唤醒, 重试策略(默认按字典序第一个锁键查找)与兜底轮询间隔决定最长等待时间
+ * @author XUZIMING 2026-10-18
+ */
+public class RedisMultiDistributedLock implements DistributedLock {
+
+	/** 释放通知丢失时的兜底轮询间隔(毫秒) */
+	private static final long FALLBACK_POLL_MILLIS = 500L;
+
+	private final JedisWrapper jedisWrapper;
+
+	/** 按节点分组的锁键(key: host:port), 节点与锁键均按字典序排列 */
+	private final Map<String, List<String>> lockKeysByNode = new TreeMap<>();
+
+	/** 持有者令牌 */
+	private final String lockToken = UUID.randomUUID().toString();
+
+	/** 锁租约时间(毫秒) */
+	private long leaseMillis = LOCK_MAX_WAIT_MILLISECONDS;
+
+	/** 重试策略 */
+	private LockRetryPolicy retryPolicy;
+
+	/** 最近一次加锁失败时已被他人持有的锁键 */
+	private String blockingKey;
+
+	/** 最近一次加锁失败时该锁键的剩余租约(毫秒) */
+	private long holderTtlMillis = LockRetryPolicy.UNKNOWN_TTL;
+
+	public RedisMultiDistributedLock(Jedis jedis, Collection<String> lockKeys) {
+		this(JedisWrapper.wrap(jedis, null), lockKeys);
+	}
+
+	public RedisMultiDistributedLock(ShardedJedis sharedJedis, Collection<String> lockKeys) {
+		this(JedisWrapper.wrap(null, sharedJedis), lockKeys);
+	}
+
+	public RedisMultiDistributedLock(JedisWrapper jedisWrapper, Collection<String> lockKeys) {
+		if (lockKeys == null || lockKeys.isEmpty()) {
+			throw new IllegalArgumentException("lockKeys can not be empty.");
+		}
+		this.jedisWrapper = jedisWrapper;
+		TreeSet<String> sortedKeys = new TreeSet<>(lockKeys);
+		for (String lockKey : sortedKeys) {
+			String nodeName = RedisLockNotifier.nodeName(jedisWrapper.shardInfo(lockKey));
+			lockKeysByNode.computeIfAbsent(nodeName, name -> new ArrayList<>()).add(lockKey);
+		}
+		this.retryPolicy = LockRetryPolicies.forName(sortedKeys.first());
+	}
+
+	/**
+	 * 设置重试策略(覆盖按锁键注册的策略)
+	 * @param retryPolicy 重试策略
+	 */
+	public void setRetryPolicy(LockRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * 设置锁租约时间(默认3000毫秒)
+	 * @param leaseMillis 租约时间(毫秒)
+	 */
+	public void setLeaseMillis(long leaseMillis) {
+		if (leaseMillis <= 0) {
+			throw new IllegalArgumentException("leaseMillis must be positive.");
+		}
+		this.leaseMillis = leaseMillis;
+	}
+
+	@Override
+	public boolean tryLock(long maxWait, TimeUnit waitUnit) {
+		// 获取锁截止时间
+		long tryLockDeadline = System.currentTimeMillis() + waitUnit.toMillis(maxWait);
+		RedisLockNotifier notifier = RedisLockNotifier.getInstance();
+		RedisLockNotifier.LockWaiter waiter = null;
+		String waitingKey = null;
+		try {
+			int attempt = 0;
+			long delay = 0L;
+			for (;;) {
+				if (doTryLock()) {
+					return true;
+				}
+
+				long remaining = tryLockDeadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				if (!blockingKey.equals(waitingKey)) {
+					// 改为等待当前阻塞加锁的锁键
+					boolean first = waiter == null;
+					if (waiter != null) {
+						notifier.removeWaiter(waitingKey, waiter);
+					}
+					waitingKey = blockingKey;
+					waiter = notifier.addWaiter(jedisWrapper.shardInfo(waitingKey), waitingKey);
+					if (first) {
+						// 注册等待者之后立即再尝试一次, 避免错过注册之前发出的释放通知
+						continue;
+					}
+				}
+				// 释放通知随时唤醒, 重试策略与兜底轮询间隔决定最长等待时间
+				delay = retryPolicy.nextDelayMillis(++attempt, delay, holderTtlMillis);
+				waiter.await(Math.min(remaining, Math.min(delay, FALLBACK_POLL_MILLIS)));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			if (waiter != null) {
+				notifier.removeWaiter(waitingKey, waiter);
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean tryLock() {
+		return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 释放锁: 每个节点一次批量释放
+	 */
+	@Override
+	public void realseLock() {
+		for (List<String> lockKeys : lockKeysByNode.values()) {
+			release(lockKeys);
+		}
+	}
+
+	/**
+	 * 单次加锁尝试: 按规范顺序逐个节点批量加锁, 失败则回滚已锁定的节点并记录阻塞加锁的锁键
+	 */
+	private boolean doTryLock() {
+		List<List<String>> lockedGroups = new ArrayList<>(lockKeysByNode.size());
+		boolean success = false;
+		try {
+			for (List<String> lockKeys : lockKeysByNode.values()) {
+				List<?> result = (List<?>) jedisWrapper.eval(RedisLockScripts.ACQUIRE_MULTI_LOCK, lockKeys,
+						Arrays.asList(lockToken, String.valueOf(leaseMillis)));
+				if (!Long.valueOf(1L).equals(result.get(0))) {
+					blockingKey = lockKeys.get(((Long) result.get(1)).intValue() - 1);
+					holderTtlMillis = Math.max((Long) result.get(2), LockRetryPolicy.UNKNOWN_TTL);
+					return false;
+				}
+				lockedGroups.add(lockKeys);
+			}
+			success = true;
+			return true;
+		} finally {
+			if (!success) {
+				for (List<String> lockKeys : lockedGroups) {
+					release(lockKeys);
+				}
+			}
+		}
+	}
+
+	private void release(List<String> lockKeys) {
+		jedisWrapper.eval(RedisLockScripts.RELEASE_MULTI_LOCK, lockKeys, Arrays.asList(lockToken, RedisLockNotifier.CHANNEL));
+	}
+
+}
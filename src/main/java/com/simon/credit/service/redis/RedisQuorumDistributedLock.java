@@ -0,0 +1,237 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.simon.credit.service.DaemonThreadFactory;
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.redis.RedisDistributedLock.JedisWrapper;
+
+import redis.clients.jedis.Jedis;
+
+/**
+ * Redis多主节点(法定人数)分布式锁<br>
+ * 并行向N个相互独立的Redis节点加锁, 在扣除时钟漂移后的有效期内得到多数节点响应成功即加锁成功,
+ * 加锁耗时取决于多数节点而非最慢的节点; 释放锁时异步向所有节点发起比较并删除.
+ * 同一节点上的命令按提交顺序依次执行, 释放锁总是排在该节点迟到的加锁之后; 加锁命令在本次尝试的有效期内未能开始执行时不再执行,
+ * 不可用的节点上不会堆积加锁命令
+ * @author XUZIMING 2026-10-18
+ */
+public class RedisQuorumDistributedLock implements DistributedLock {
+
+	/** 时钟漂移系数(租约时间的1%) */
+	private static final double CLOCK_DRIFT_FACTOR = 0.01;
+
+	/** 时钟漂移补偿的固定部分(毫秒) */
+	private static final long CLOCK_DRIFT_BASE_MILLIS = 2L;
+
+	/** 加锁失败后重试的最大随机间隔(毫秒), 错开各节点的重试 */
+	private static final long MAX_RETRY_DELAY_MILLIS = 100L;
+
+	/** 各节点的加锁/释放锁命令在此线程池中并行执行(线程数有上限, 同一节点同一时刻最多占用一个线程) */
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors() * 2, new DaemonThreadFactory("redis-quorum-lock"));
+
+	private final List<JedisWrapper> nodes;
+
+	private final String lockKey;
+
+	/** 法定人数: 超过半数 */
+	private final int quorum;
+
+	/** 持有者令牌 */
+	private final String lockToken = UUID.randomUUID().toString();
+
+	/** 锁租约时间(毫秒) */
+	private long leaseMillis = LOCK_MAX_WAIT_MILLISECONDS;
+
+	/** 锁有效期截止时间(毫秒时间戳), 0表示未持有锁 */
+	private long validityDeadline;
+
+	/** 各节点最后提交的命令执行完毕(或跳过)的信号, 后续命令接在其后执行(由实例监视器保护) */
+	private final List<CompletableFuture<?>> nodeTails;
+
+	/**
+	 * @param jedisList 相互独立的Redis主节点连接(每个节点一个)
+	 * @param lockKey 锁键
+	 */
+	public RedisQuorumDistributedLock(List<Jedis> jedisList, String lockKey) {
+		if (jedisList == null || jedisList.isEmpty()) {
+			throw new IllegalArgumentException("jedisList can not be empty.");
+		}
+		this.nodes = new ArrayList<>(jedisList.size());
+		this.nodeTails = new ArrayList<>(jedisList.size());
+		for (Jedis jedis : jedisList) {
+			this.nodes.add(JedisWrapper.wrap(jedis, null));
+			this.nodeTails.add(CompletableFuture.completedFuture(null));
+		}
+		this.lockKey = lockKey;
+		this.quorum = jedisList.size() / 2 + 1;
+	}
+
+	/**
+	 * 设置锁租约时间(默认3000毫秒)
+	 * @param leaseMillis 租约时间(毫秒)
+	 */
+	public void setLeaseMillis(long leaseMillis) {
+		if (leaseMillis <= 0) {
+			throw new IllegalArgumentException("leaseMillis must be positive.");
+		}
+		this.leaseMillis = leaseMillis;
+	}
+
+	/**
+	 * 锁的剩余有效时间(毫秒), 临界区应在有效期内完成
+	 * @return 剩余有效时间, 未持有锁时返回0
+	 */
+	public long getRemainingValidityMillis() {
+		return Math.max(validityDeadline - System.currentTimeMillis(), 0L);
+	}
+
+	@Override
+	public boolean tryLock(long maxWait, TimeUnit waitUnit) {
+		long tryLockDeadline = System.currentTimeMillis() + waitUnit.toMillis(maxWait);
+		try {
+			for (;;) {
+				if (doTryLock()) {
+					return true;
+				}
+
+				long remaining = tryLockDeadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				Thread.sleep(Math.min(remaining, ThreadLocalRandom.current().nextLong(MAX_RETRY_DELAY_MILLIS) + 1));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	@Override
+	public boolean tryLock() {
+		return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 异步向所有节点释放锁(包括加锁时迟到的节点)
+	 */
+	@Override
+	public void realseLock() {
+		validityDeadline = 0L;
+		releaseAll();
+	}
+
+	/**
+	 * 单次加锁尝试: 并行向所有节点加锁, 多数节点成功且有效期未耗尽即成功
+	 */
+	private boolean doTryLock() throws InterruptedException {
+		long startTime = System.currentTimeMillis();
+		long driftMillis = (long) (leaseMillis * CLOCK_DRIFT_FACTOR) + CLOCK_DRIFT_BASE_MILLIS;
+
+		// 单个节点的超时即本次尝试的有效期: 之后的响应已无法计入法定人数
+		long nodeTimeoutMillis = leaseMillis - driftMillis;
+		BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+		for (int i = 0; i < nodes.size(); i++) {
+			JedisWrapper node = nodes.get(i);
+			submit(i, () -> acquireOn(node), nodeTimeoutMillis).whenComplete((acquired, e) -> results.add(e == null && acquired));
+		}
+
+		int acquired = 0;
+		int failed = 0;
+		// 已不可能达到法定人数时提前结束
+		while (acquired < quorum && failed <= nodes.size() - quorum) {
+			long remaining = startTime + leaseMillis - driftMillis - System.currentTimeMillis();
+			if (remaining <= 0) {
+				break;
+			}
+			Boolean result = results.poll(remaining, TimeUnit.MILLISECONDS);
+			if (result == null) {
+				break;
+			}
+			if (result) {
+				acquired++;
+			} else {
+				failed++;
+			}
+		}
+
+		long now = System.currentTimeMillis();
+		long validity = leaseMillis - (now - startTime) - driftMillis;
+		if (acquired >= quorum && validity > 0) {
+			validityDeadline = now + validity;
+			return true;
+		}
+
+		releaseAll();
+		return false;
+	}
+
+	private boolean acquireOn(JedisWrapper node) {
+		try {
+			Object result = node.eval(RedisLockScripts.ACQUIRE_QUORUM_LOCK, Collections.singletonList(lockKey),
+					Arrays.asList(lockToken, String.valueOf(leaseMillis)));
+			return Long.valueOf(1L).equals(result);
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	private void releaseAll() {
+		for (int i = 0; i < nodes.size(); i++) {
+			JedisWrapper node = nodes.get(i);
+			submit(i, () -> {
+				try {
+					node.eval(RedisLockScripts.RELEASE_LOCK, Collections.singletonList(lockKey),
+							Arrays.asList(lockToken, RedisLockNotifier.CHANNEL));
+				} catch (Exception e) {
+					// 节点不可用时由租约过期兜底
+				}
+				return null;
+			}, 0L);
+		}
+	}
+
+	/**
+	 * 将命令接在该节点上一条命令之后执行(Jedis连接非线程安全, 且释放须排在迟到的加锁之后)
+	 * @param timeoutMillis 超时时间(毫秒): 超时后返回的结果以{@link TimeoutException}完成, 尚未开始执行的命令不再执行;
+	 *                      已开始执行的命令无法中断, 后续命令仍排在其后. 0表示不超时
+	 */
+	private synchronized <T> CompletableFuture<T> submit(int nodeIndex, Supplier<T> command, long timeoutMillis) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		ScheduledFuture<?> timer = timeoutMillis <= 0 ? null : RedisLockExecutors.TIMER.schedule(() ->
+				result.completeExceptionally(new TimeoutException("redis quorum lock node " + nodeIndex + " timed out")),
+				timeoutMillis, TimeUnit.MILLISECONDS);
+		CompletableFuture<Void> done = nodeTails.get(nodeIndex).handle((ignored, e) -> null).thenRunAsync(() -> {
+			if (result.isDone()) {
+				return;
+			}
+			try {
+				result.complete(command.get());
+			} catch (Exception e) {
+				result.completeExceptionally(e);
+			} finally {
+				if (timer != null) {
+					timer.cancel(false);
+				}
+			}
+		}, EXECUTOR);
+		nodeTails.set(nodeIndex, done);
+		return result;
+	}
+
+}
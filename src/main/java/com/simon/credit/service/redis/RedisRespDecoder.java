@@ -0,0 +1,117 @@
+package com.simon.credit.service.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.ByteProcessor;
+
+/**
+ * RESP应答解码器<br>
+ * 简单字符串、批量字符串解码为String, 整数解码为Long, 数组解码为List, 错误解码为{@link ErrorReply};
+ * 空值(nil)解码为{@link #NIL}, 数据不完整时等待后续数据
+ * @author XUZIMING 2026-10-18
+ */
+final class RedisRespDecoder extends ByteToMessageDecoder {
+
+	/** 空值应答 */
+	static final Object NIL = new Object();
+
+	/** 数据不完整 */
+	private static final Object INCOMPLETE = new Object();
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+		while (in.isReadable()) {
+			int start = in.readerIndex();
+			Object reply = parse(in);
+			if (reply == INCOMPLETE) {
+				in.readerIndex(start);
+				return;
+			}
+			out.add(reply);
+		}
+	}
+
+	private static Object parse(ByteBuf in) {
+		if (!in.isReadable()) {
+			return INCOMPLETE;
+		}
+		byte type = in.readByte();
+		String line = readLine(in);
+		if (line == null) {
+			return INCOMPLETE;
+		}
+
+		switch (type) {
+			case '+':
+				return line;
+			case '-':
+				return new ErrorReply(line);
+			case ':':
+				return Long.parseLong(line);
+			case '$': {
+				int length = Integer.parseInt(line);
+				if (length < 0) {
+					return NIL;
+				}
+				if (in.readableBytes() < length + 2) {
+					return INCOMPLETE;
+				}
+				String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+				in.skipBytes(length + 2);
+				return value;
+			}
+			case '*': {
+				int size = Integer.parseInt(line);
+				if (size < 0) {
+					return NIL;
+				}
+				List<Object> elements = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					Object element = parse(in);
+					if (element == INCOMPLETE) {
+						return INCOMPLETE;
+					}
+					elements.add(element == NIL ? null : element);
+				}
+				return elements;
+			}
+			default:
+				throw new DecoderException("unknown RESP type: " + (char) type);
+		}
+	}
+
+	/**
+	 * 读取一行(不含CRLF), 数据不完整时返回null
+	 */
+	private static String readLine(ByteBuf in) {
+		int cr = in.forEachByte(ByteProcessor.FIND_CR);
+		if (cr < 0 || cr + 1 >= in.writerIndex()) {
+			return null;
+		}
+		String line = in.toString(in.readerIndex(), cr - in.readerIndex(), StandardCharsets.UTF_8);
+		in.readerIndex(cr + 2);
+		return line;
+	}
+
+	/**
+	 * 错误应答
+	 */
+	static final class ErrorReply {
+		private final String message;
+
+		ErrorReply(String message) {
+			this.message = message;
+		}
+
+		String getMessage() {
+			return message;
+		}
+	}
+
+}
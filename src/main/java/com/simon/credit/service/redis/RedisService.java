@@ -1,5 +1,6 @@
 package com.simon.credit.service.redis;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -87,4 +88,41 @@ public interface RedisService {
 	 */
 	String hmset(final String key, final Map<String, String> hash);
 
+	/**
+	 * 批量get操作(按分片分组, 每个分片一次往返, 各分片并行)
+	 * @param keys
+	 * @return 与keys顺序一致的值, 不存在的key对应null
+	 */
+	List<String> mget(List<String> keys);
+
+	/**
+	 * 批量set操作(按分片分组, 每个分片一次往返, 各分片并行)
+	 * @param keyValues
+	 * @return
+	 */
+	String mset(Map<String, String> keyValues);
+
+	/**
+	 * 批量set操作，同时设置生存时间，单位为：秒
+	 * @param keyValues
+	 * @param seconds
+	 * @return
+	 */
+	String msetex(Map<String, String> keyValues, Integer seconds);
+
+	/**
+	 * 批量hash get操作: 获取多个key的同一field
+	 * @param keys
+	 * @param field hash数据结构名
+	 * @return 与keys顺序一致的值, 不存在的对应null
+	 */
+	List<String> mhget(List<String> keys, String field);
+
+	/**
+	 * 批量删除操作
+	 * @param keys
+	 * @return 删除的key数量
+	 */
+	Long mdel(List<String> keys);
+
 }
\ No newline at end of file
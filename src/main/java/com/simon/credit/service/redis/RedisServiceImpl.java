@@ -1,9 +1,26 @@
 package com.simon.credit.service.redis;
 
+import com.simon.credit.service.DaemonThreadFactory;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.ShardedJedisPool;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * REDIS操作服务
@@ -11,10 +28,61 @@ import java.util.Map;
  */
 public class RedisServiceImpl implements RedisService {
 
+	/** 批量操作默认的分片并行线程池 */
+	private static final ExecutorService SHARD_EXECUTOR = Executors.newFixedThreadPool(
+			Math.max(4, Runtime.getRuntime().availableProcessors() * 2), new DaemonThreadFactory("redis-shard"));
+
 	private ShardedJedisPool shardedJedisPool;
 
+	/** 是否开启自动流水线(默认关闭) */
+	private boolean autoPipelining;
+
+	/** 自动流水线单批最多命令数 */
+	private int pipelineBatchSize = 128;
+
+	/** 自动流水线最多同时进行的批次数(同时占用的分片连接数) */
+	private int pipelineConcurrency = 2;
+
+	private volatile RedisAutoPipeline autoPipeline;
+
+	/** 批量操作的分片并行线程池 */
+	private Executor shardExecutor = SHARD_EXECUTOR;
+
 	public void setShardedJedisPool(ShardedJedisPool shardedJedisPool) {
 		this.shardedJedisPool = shardedJedisPool;
+		initAutoPipeline();
+	}
+
+	/**
+	 * 设置是否开启自动流水线: 多个线程并发的单键命令合并到同一流水线, 每个分片一次往返
+	 * @param autoPipelining true:开启; false:关闭
+	 */
+	public void setAutoPipelining(boolean autoPipelining) {
+		this.autoPipelining = autoPipelining;
+		initAutoPipeline();
+	}
+
+	/**
+	 * 设置自动流水线的上限(默认单批128个命令, 最多同时2个批次)
+	 * @param batchSize 单批最多命令数
+	 * @param concurrency 最多同时进行的批次数
+	 */
+	public void setPipelineLimits(int batchSize, int concurrency) {
+		this.pipelineBatchSize = batchSize;
+		this.pipelineConcurrency = concurrency;
+		initAutoPipeline();
+	}
+
+	/**
+	 * 设置批量操作的分片并行线程池(调用线程执行其中一个分片)
+	 */
+	public void setShardExecutor(Executor shardExecutor) {
+		this.shardExecutor = shardExecutor;
+	}
+
+	private void initAutoPipeline() {
+		this.autoPipeline = autoPipelining && shardedJedisPool != null ?
+				new RedisAutoPipeline(shardedJedisPool, pipelineBatchSize, pipelineConcurrency) : null;
 	}
 
 	/**
@@ -38,6 +106,21 @@ public class RedisServiceImpl implements RedisService {
 		}
 	}
 
+	/**
+	 * 单键命令执行方法: 开启自动流水线时与其它线程的命令合并执行, 否则独占一个连接执行
+	 * @param key 命令的键
+	 * @param redisCallback redis回调
+	 * @param pipelineCallback 流水线回调(键所在分片的流水线)
+	 * @return
+	 */
+	private <T> T execute(String key, RedisCallback<T, ShardedJedis> redisCallback, RedisCallback<Response<T>, Pipeline> pipelineCallback) {
+		RedisAutoPipeline pipeline = this.autoPipeline;
+		if (pipeline != null) {
+			return pipeline.execute(key, pipelineCallback);
+		}
+		return execute(redisCallback);
+	}
+
 	/**
 	 * 执行set操作
 	 * @param key
@@ -46,7 +129,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public String set(final String key, final String value) {
-		return execute(e -> e.set(key, value));
+		return execute(key, e -> e.set(key, value), p -> p.set(key, value));
 	}
 
 	/**
@@ -58,7 +141,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public Long hset(final String key, final String hash, final String value) {
-		return execute(e -> e.hset(key, hash, value));
+		return execute(key, e -> e.hset(key, hash, value), p -> p.hset(key, hash, value));
 	}
 
 	/**
@@ -70,10 +153,14 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public String set(final String key, final String value, final Integer seconds) {
-		return execute(e -> {
+		return execute(key, e -> {
 			String str = e.set(key, value);
 			e.expire(key, seconds.intValue());
 			return str;
+		}, p -> {
+			Response<String> response = p.set(key, value);
+			p.expire(key, seconds.intValue());
+			return response;
 		});
 	}
 
@@ -84,7 +171,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public String get(final String key) {
-		return execute(e -> e.get(key));
+		return execute(key, e -> e.get(key), p -> p.get(key));
 	}
 
 	/**
@@ -95,7 +182,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public String hget(final String key, final String hash) {
-		return execute(e -> e.hget(key, hash));
+		return execute(key, e -> e.hget(key, hash), p -> p.hget(key, hash));
 	}
 
 	/**
@@ -105,7 +192,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public Long del(final String key) {
-		return execute(e -> e.del(key));
+		return execute(key, e -> e.del(key), p -> p.del(key));
 	}
 
 	/**
@@ -116,7 +203,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public Long expire(final String key, final Integer seconds) {
-		return execute(e -> e.expire(key, seconds.intValue()));
+		return execute(key, e -> e.expire(key, seconds.intValue()), p -> p.expire(key, seconds.intValue()));
 	}
 
 	/**
@@ -127,7 +214,7 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public Boolean hexists(final String key, final String hash) {
-		return execute(e -> e.hexists(key, hash));
+		return execute(key, e -> e.hexists(key, hash), p -> p.hexists(key, hash));
 	}
 
 	/**
@@ -138,7 +225,178 @@ public class RedisServiceImpl implements RedisService {
 	 */
 	@Override
 	public String hmset(final String key, final Map<String, String> hash) {
-		return execute(e -> e.hmset(key, hash));
+		return execute(key, e -> e.hmset(key, hash), p -> p.hmset(key, hash));
+	}
+
+	/**
+	 * 执行批量get操作
+	 * @param keys
+	 * @return
+	 */
+	@Override
+	public List<String> mget(final List<String> keys) {
+		if (keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return execute(e -> {
+			String[] values = new String[keys.size()];
+			forEachShard(e, keys, (jedis, indexes) -> {
+				List<String> shardValues = jedis.mget(keysAt(keys, indexes));
+				for (int i = 0; i < indexes.size(); i++) {
+					values[indexes.get(i)] = shardValues.get(i);
+				}
+			});
+			return Arrays.asList(values);
+		});
+	}
+
+	/**
+	 * 执行批量set操作
+	 * @param keyValues
+	 * @return
+	 */
+	@Override
+	public String mset(final Map<String, String> keyValues) {
+		if (keyValues.isEmpty()) {
+			return "OK";
+		}
+		final List<String> keys = new ArrayList<>(keyValues.keySet());
+		return execute(e -> {
+			forEachShard(e, keys, (jedis, indexes) -> {
+				String[] shardKeyValues = new String[indexes.size() * 2];
+				for (int i = 0; i < indexes.size(); i++) {
+					String key = keys.get(indexes.get(i));
+					shardKeyValues[i * 2] = key;
+					shardKeyValues[i * 2 + 1] = keyValues.get(key);
+				}
+				jedis.mset(shardKeyValues);
+			});
+			return "OK";
+		});
+	}
+
+	/**
+	 * 执行批量set操作，同时设置生存时间，单位为：秒
+	 * @param keyValues
+	 * @param seconds
+	 * @return
+	 */
+	@Override
+	public String msetex(final Map<String, String> keyValues, final Integer seconds) {
+		if (keyValues.isEmpty()) {
+			return "OK";
+		}
+		final List<String> keys = new ArrayList<>(keyValues.keySet());
+		return execute(e -> {
+			forEachShard(e, keys, (jedis, indexes) -> {
+				Pipeline pipeline = jedis.pipelined();
+				List<Response<String>> responses = new ArrayList<>(indexes.size());
+				for (int index : indexes) {
+					String key = keys.get(index);
+					responses.add(pipeline.setex(key, seconds.intValue(), keyValues.get(key)));
+				}
+				pipeline.sync();
+				for (Response<String> response : responses) {
+					// 命令出错时抛出异常
+					response.get();
+				}
+			});
+			return "OK";
+		});
+	}
+
+	/**
+	 * 执行批量hash get操作
+	 * @param keys
+	 * @param hash Hash数据结构名
+	 * @return
+	 */
+	@Override
+	public List<String> mhget(final List<String> keys, final String hash) {
+		if (keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return execute(e -> {
+			String[] values = new String[keys.size()];
+			forEachShard(e, keys, (jedis, indexes) -> {
+				Pipeline pipeline = jedis.pipelined();
+				List<Response<String>> responses = new ArrayList<>(indexes.size());
+				for (int index : indexes) {
+					responses.add(pipeline.hget(keys.get(index), hash));
+				}
+				pipeline.sync();
+				for (int i = 0; i < indexes.size(); i++) {
+					values[indexes.get(i)] = responses.get(i).get();
+				}
+			});
+			return Arrays.asList(values);
+		});
+	}
+
+	/**
+	 * 执行批量删除操作
+	 * @param keys
+	 * @return
+	 */
+	@Override
+	public Long mdel(final List<String> keys) {
+		if (keys.isEmpty()) {
+			return 0L;
+		}
+		return execute(e -> {
+			AtomicLong deleted = new AtomicLong();
+			forEachShard(e, keys, (jedis, indexes) -> deleted.addAndGet(jedis.del(keysAt(keys, indexes))));
+			return deleted.get();
+		});
+	}
+
+	/**
+	 * 按分片对key分组, 各分片并行执行操作(调用线程执行第一个分片), 全部分片完成后返回, 任一分片失败时抛出其异常
+	 * @param shardedJedis 分片对象(各分片的连接只由一个线程使用)
+	 * @param keys
+	 * @param shardOperation 分片操作(参数: 分片连接, 属于该分片的key在keys中的下标)
+	 */
+	private void forEachShard(ShardedJedis shardedJedis, List<String> keys, BiConsumer<Jedis, List<Integer>> shardOperation) {
+		Map<Jedis, List<Integer>> shards = new LinkedHashMap<>();
+		for (int i = 0; i < keys.size(); i++) {
+			shards.computeIfAbsent(shardedJedis.getShard(keys.get(i)), jedis -> new ArrayList<>()).add(i);
+		}
+
+		Iterator<Map.Entry<Jedis, List<Integer>>> iterator = shards.entrySet().iterator();
+		Map.Entry<Jedis, List<Integer>> first = iterator.next();
+		List<CompletableFuture<Void>> futures = new ArrayList<>(shards.size() - 1);
+		while (iterator.hasNext()) {
+			Map.Entry<Jedis, List<Integer>> shard = iterator.next();
+			futures.add(CompletableFuture.runAsync(() -> shardOperation.accept(shard.getKey(), shard.getValue()), shardExecutor));
+		}
+
+		RuntimeException failure = null;
+		try {
+			shardOperation.accept(first.getKey(), first.getValue());
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		// 等待全部分片完成后才能归还连接
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			} catch (CompletionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private static String[] keysAt(List<String> keys, List<Integer> indexes) {
+		String[] shardKeys = new String[indexes.size()];
+		for (int i = 0; i < indexes.size(); i++) {
+			shardKeys[i] = keys.get(indexes.get(i));
+		}
+		return shardKeys;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.RetrySleeper;
+
+import com.simon.credit.service.lock.LockRetryPolicy;
+
+/**
+ * 将加锁重试策略适配为CURATOR重试策略(ZK客户端所有操作共用)
+ * @author XUZIMING 2026-10-18
+ */
+final class CuratorRetryPolicyAdapter implements RetryPolicy {
+
+	private final LockRetryPolicy retryPolicy;
+
+	private final int maxRetries;
+
+	CuratorRetryPolicyAdapter(LockRetryPolicy retryPolicy, int maxRetries) {
+		this.retryPolicy = retryPolicy;
+		this.maxRetries = maxRetries;
+	}
+
+	@Override
+	public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
+		if (retryCount >= maxRetries) {
+			return false;
+		}
+
+		// CURATOR不传入上一次的等待时间, 以平均等待时间近似
+		long lastDelayMillis = retryCount == 0 ? 0L : elapsedTimeMs / retryCount;
+		long delay = retryPolicy.nextDelayMillis(retryCount + 1, lastDelayMillis, LockRetryPolicy.UNKNOWN_TTL);
+		try {
+			sleeper.sleepFor(delay, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,256 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.curator.utils.ZKPaths;
+import org.apache.curator.x.async.AsyncCuratorFramework;
+import org.apache.curator.x.async.AsyncStage;
+import org.apache.curator.x.async.WatchMode;
+import org.apache.curator.x.async.api.AsyncCuratorFrameworkDsl;
+import org.apache.curator.x.async.api.CreateOption;
+import org.apache.curator.x.async.api.DeleteOption;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+
+import com.simon.credit.service.DistributedLock;
+
+/**
+ * 非阻塞分布式互斥锁(基于CURATOR异步API实现)<br>
+ * 与{@link org.apache.curator.framework.recipes.locks.InterProcessMutex}使用相同的临时顺序节点命名, 两者可在同一路径下混用排队;
+ * 等待期间只注册前驱节点的watch, 超时由共享定时器触发, 不占用任何线程. 加锁结果在共享的固定线程池中回调,
+ * 调用方的后续处理不会阻塞ZK事件线程<br>
+ * 不可重入, 同一实例同一时刻只能持有一次锁
+ * @author XUZIMING 2026-10-18
+ */
+public final class ZooKeeperAsyncLock {
+
+	/** 锁节点名(与InterProcessMutex一致) */
+	private static final String LOCK_NAME = "lock-";
+
+	/** 锁节点创建选项: 父节点为容器节点, 带保护前缀(与InterProcessMutex一致) */
+	private static final Set<CreateOption> CREATE_OPTIONS = EnumSet.of(CreateOption.createParentsAsContainers, CreateOption.doProtected);
+
+	/** 锁节点删除选项: 连接中断时由CURATOR在恢复后继续删除, 节点不存在时忽略 */
+	private static final Set<DeleteOption> DELETE_OPTIONS = EnumSet.of(DeleteOption.guaranteed, DeleteOption.quietly);
+
+	private final ZooKeeperEnsemble ensemble;
+
+	private final AsyncCuratorFramework async;
+
+	/** 只在操作成功时触发watch(连接中断由连接状态守卫处理) */
+	private final AsyncCuratorFrameworkDsl watchedAsync;
+
+	private final String path;
+
+	/** 当前持有的锁节点路径 */
+	private volatile String lockNodePath;
+
+	/** 当前持有的锁节点的创建事务号(防护令牌) */
+	private volatile long fencingToken = DistributedLock.NO_FENCING_TOKEN;
+
+	/**
+	 * @param path 分布式锁路径
+	 */
+	public ZooKeeperAsyncLock(String path) {
+		this(requireEnsemble(path), path);
+	}
+
+	ZooKeeperAsyncLock(ZooKeeperEnsemble ensemble, String path) {
+		this.ensemble = ensemble;
+		this.async = AsyncCuratorFramework.wrap(ensemble.getClient());
+		this.watchedAsync = async.with(WatchMode.successOnly);
+		this.path = path;
+	}
+
+	private static ZooKeeperEnsemble requireEnsemble(String path) {
+		ZooKeeperEnsemble ensemble = ZooKeeperDistributedLock.ensembleOf(path);
+		if (ensemble == null) {
+			throw new IllegalStateException("zookeeper lock client is not initialized.");
+		}
+		return ensemble;
+	}
+
+	/**
+	 * 异步加锁(客户端未启动或连接中断时立即返回false)
+	 * @param maxWait 最大等待时间
+	 * @param waitUnit 最大等待时间单位
+	 * @return true:加锁成功; false:加锁失败
+	 */
+	public CompletionStage<Boolean> acquire(long maxWait, TimeUnit waitUnit) {
+		ZooKeeperConnectionGuard connectionGuard = ensemble.getConnectionGuard();
+		if (!ensemble.isStarted() || !connectionGuard.isHealthy()) {
+			return CompletableFuture.completedFuture(false);
+		}
+
+		Acquisition acquisition = new Acquisition();
+		connectionGuard.addWaiter(acquisition.abort);
+		acquisition.timeout = ZooKeeperLockExecutors.TIMER.schedule(acquisition.abort, maxWait, waitUnit);
+		async.create().withOptions(CREATE_OPTIONS, CreateMode.EPHEMERAL_SEQUENTIAL, null, acquisition.stat)
+			 .forPath(ZKPaths.makePath(path, LOCK_NAME))
+			 .whenComplete((ourPath, e) -> {
+				 if (e != null) {
+					 acquisition.fail(e);
+				 } else {
+					 acquisition.onCreated(ourPath);
+				 }
+			 });
+		return acquisition.result.thenApplyAsync(Function.identity(), ZooKeeperLockExecutors.CALLBACK_EXECUTOR);
+	}
+
+	/**
+	 * 防护令牌: 锁节点的创建事务号(czxid), 由创建锁节点的响应直接带回, 不增加往返
+	 */
+	public long getFencingToken() {
+		return fencingToken;
+	}
+
+	/**
+	 * 是否持有锁
+	 */
+	public boolean isHeld() {
+		return lockNodePath != null;
+	}
+
+	/**
+	 * 异步释放锁
+	 */
+	public CompletionStage<Void> release() {
+		String nodePath = lockNodePath;
+		lockNodePath = null;
+		if (nodePath == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return async.delete().withOptions(DELETE_OPTIONS).forPath(nodePath)
+				.thenApplyAsync(Function.identity(), ZooKeeperLockExecutors.CALLBACK_EXECUTOR);
+	}
+
+	private void deleteNode(String nodePath) {
+		async.delete().withOptions(DELETE_OPTIONS).forPath(nodePath);
+	}
+
+	private static String sequence(String nodeName) {
+		return nodeName.substring(nodeName.lastIndexOf(LOCK_NAME) + LOCK_NAME.length());
+	}
+
+	private static Throwable unwrap(Throwable e) {
+		return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+	}
+
+	/**
+	 * 一次异步加锁过程
+	 */
+	private final class Acquisition {
+		private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+		private final Runnable abort = () -> finish(false);
+		private final Stat stat = new Stat();
+		private volatile ScheduledFuture<?> timeout;
+		private volatile String ourPath;
+
+		void onCreated(String createdPath) {
+			ourPath = createdPath;
+			if (result.isDone()) {
+				// 已超时, 删除刚创建的节点
+				deleteNode(ourPath);
+				return;
+			}
+			checkLock();
+		}
+
+		/**
+		 * 检查自己是否排在最前面, 否则监听前驱节点
+		 */
+		void checkLock() {
+			if (result.isDone()) {
+				return;
+			}
+			async.getChildren().forPath(path).whenComplete((children, e) -> {
+				if (e != null) {
+					fail(e);
+				} else {
+					onChildren(children);
+				}
+			});
+		}
+
+		private void onChildren(List<String> nodeNames) {
+			List<String> children = new ArrayList<>(nodeNames);
+			Collections.sort(children, (a, b) -> sequence(a).compareTo(sequence(b)));
+			String ourNodeName = ZKPaths.getNodeFromPath(ourPath);
+			int ourIndex = children.indexOf(ourNodeName);
+			if (ourIndex < 0) {
+				// 节点已丢失(会话过期等)
+				fail(new KeeperException.NoNodeException(ourPath));
+				return;
+			}
+			if (ourIndex == 0) {
+				finish(true);
+				return;
+			}
+
+			// 与InterProcessMutex一致使用getData注册watch: 前驱节点不存在时不会遗留watch
+			String predecessor = ZKPaths.makePath(path, children.get(ourIndex - 1));
+			AsyncStage<byte[]> stage = watchedAsync.watched().getData().forPath(predecessor);
+			stage.whenComplete((data, e) -> {
+				if (e == null) {
+					return;
+				}
+				if (unwrap(e) instanceof KeeperException.NoNodeException) {
+					// 前驱节点已不存在, 立即重新检查
+					checkLock();
+				} else {
+					fail(e);
+				}
+			});
+			// 前驱节点被删除时重新检查
+			stage.event().thenRun(this::checkLock);
+		}
+
+		void finish(boolean locked) {
+			// 先记录锁节点及防护令牌, 调用方可能在回调中立即释放锁
+			if (locked) {
+				lockNodePath = ourPath;
+				fencingToken = stat.getCzxid();
+			}
+			if (!result.complete(locked)) {
+				// 已超时, 节点由超时流程删除
+				if (locked) {
+					lockNodePath = null;
+				}
+				return;
+			}
+			cleanup();
+			if (!locked && ourPath != null) {
+				deleteNode(ourPath);
+			}
+		}
+
+		void fail(Throwable cause) {
+			if (result.completeExceptionally(unwrap(cause))) {
+				cleanup();
+				if (ourPath != null) {
+					deleteNode(ourPath);
+				}
+			}
+		}
+
+		private void cleanup() {
+			ensemble.getConnectionGuard().removeWaiter(abort);
+			ScheduledFuture<?> timer = timeout;
+			if (timer != null) {
+				timer.cancel(false);
+			}
+		}
+	}
+
+}
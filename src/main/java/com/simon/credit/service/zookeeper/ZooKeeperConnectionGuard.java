@@ -0,0 +1,124 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ZK连接状态守卫<br>
+ * 连接中断(SUSPENDED)或会话失效(LOST)期间加锁立即失败, 正在等待的加锁被立即中止, 不再阻塞到最大等待时间;
+ * 同时通知当前持有者其锁可能已失效
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperConnectionGuard implements ConnectionStateListener {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ZooKeeperConnectionGuard.class);
+
+	/** 最近一次连接状态(未收到状态变化前视为正常) */
+	private volatile ConnectionState state;
+
+	/** 正在等待的加锁过程的中止动作 */
+	private final Set<Runnable> waiters = ConcurrentHashMap.newKeySet();
+
+	/** 设置了锁失效监听器的当前持有者 */
+	private final Set<ZooKeeperDistributedLock> holders = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 连接是否正常
+	 */
+	boolean isHealthy() {
+		ConnectionState current = state;
+		return current == null || current.isConnected();
+	}
+
+	/**
+	 * 在当前线程执行阻塞的加锁操作, 连接中断时中断该线程使其立即返回
+	 * @param acquisition 加锁操作
+	 * @return true:加锁成功; false:连接不正常或加锁被中止
+	 */
+	boolean acquire(Acquisition acquisition) throws Exception {
+		if (!isHealthy()) {
+			return false;
+		}
+
+		Thread current = Thread.currentThread();
+		AtomicBoolean aborted = new AtomicBoolean();
+		// 中止与结束在同一监视器内互斥: 结束之后的中止不再中断调用线程
+		Runnable abort = () -> {
+			synchronized (aborted) {
+				if (aborted.compareAndSet(false, true)) {
+					current.interrupt();
+				}
+			}
+		};
+		waiters.add(abort);
+		try {
+			// 注册之后再检查一次, 避免错过注册之前的状态变化
+			return isHealthy() && acquisition.acquire();
+		} catch (Exception e) {
+			if (aborted.get()) {
+				LOGGER.warn("zookeeper lock acquisition aborted on connection {}", state);
+				return false;
+			}
+			throw e;
+		} finally {
+			waiters.remove(abort);
+			synchronized (aborted) {
+				if (!aborted.compareAndSet(false, true)) {
+					// 清除由本守卫设置的中断标记
+					Thread.interrupted();
+				}
+			}
+		}
+	}
+
+	void addWaiter(Runnable abort) {
+		waiters.add(abort);
+	}
+
+	void removeWaiter(Runnable abort) {
+		waiters.remove(abort);
+	}
+
+	/**
+	 * 登记持有者, 登记时连接已中断则立即通知
+	 */
+	void addHolder(ZooKeeperDistributedLock holder) {
+		holders.add(holder);
+		if (!isHealthy()) {
+			holder.onConnectionStateChanged(state);
+		}
+	}
+
+	void removeHolder(ZooKeeperDistributedLock holder) {
+		holders.remove(holder);
+	}
+
+	@Override
+	public void stateChanged(CuratorFramework client, ConnectionState newState) {
+		state = newState;
+		LOGGER.warn("zookeeper lock connection state changed to {}", newState);
+		if (!newState.isConnected()) {
+			for (Runnable abort : waiters) {
+				abort.run();
+			}
+		}
+		for (ZooKeeperDistributedLock holder : holders) {
+			holder.onConnectionStateChanged(newState);
+		}
+	}
+
+	/**
+	 * 阻塞的加锁操作
+	 */
+	@FunctionalInterface
+	interface Acquisition {
+		boolean acquire() throws Exception;
+	}
+
+}
@@ -1,28 +1,35 @@
 package com.simon.credit.service.zookeeper;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
-import org.apache.curator.framework.imps.CuratorFrameworkState;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.AsyncDistributedLock;
+import com.simon.credit.service.lock.LockRetryPolicy;
 
 /**
  * 分布式锁(基于APACHE CURATOR分布式锁进行二次封装)
  * @author XUZIMING 2017-11-16
  */
-public class ZooKeeperDistributedLock implements DistributedLock {
+public class ZooKeeperDistributedLock implements AsyncDistributedLock {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ZooKeeperDistributedLock.class);
 
-	/** ZK客户端 */
-	private static CuratorFramework client;
+	/** ZK集群路由(按锁路径一致性哈希到某一个ZK集群) */
+	private static volatile ZooKeeperEnsembleRouter router;
+
+	/** 锁路径所在的ZK集群 */
+	private ZooKeeperEnsemble ensemble;
 
 	/** 分布式可重入锁 */
 	private InterProcessMutex lock;
@@ -30,23 +37,85 @@ public class ZooKeeperDistributedLock implements DistributedLock {
 	/** 分布式锁路径 */
 	private String path;
 
+	/** 非阻塞分布式锁(首次异步加锁时创建) */
+	private ZooKeeperAsyncLock asyncLock;
+
+	/** 最近一次加锁成功时的防护令牌 */
+	private volatile long fencingToken = NO_FENCING_TOKEN;
+
+	/** 锁失效监听器 */
+	private volatile ZooKeeperLockListener lockListener;
+
 	public ZooKeeperDistributedLock(String path) {
 		this.path = path;
-		LOGGER.debug("=== lock state: {}", client == null ? "" : client.getState());
-		if (client != null && client.getState() == CuratorFrameworkState.STARTED) {
-			// Distributed Lock
-			lock = new InterProcessMutex(client, path);
+		this.ensemble = ensembleOf(path);
+		LOGGER.debug("=== lock state: {}", ensemble == null ? "" : ensemble.getClient().getState());
+		if (ensemble != null && ensemble.isStarted()) {
+			// Distributed Lock(同一路径复用同一个锁实例)
+			lock = ensemble.getMutexRegistry().get(path);
 		}
 	}
 
+	/**
+	 * 包装已有的Curator锁(如读写锁中的读锁、写锁)
+	 * @param path 分布式锁路径
+	 * @param lock Curator锁, 客户端未启动时为null
+	 */
+	ZooKeeperDistributedLock(String path, InterProcessMutex lock) {
+		this.path = path;
+		this.ensemble = ensembleOf(path);
+		this.lock = lock;
+	}
+
+	/**
+	 * 获取锁路径所在的ZK集群
+	 * @param path 锁路径
+	 * @return ZK集群, 客户端未初始化时为null
+	 */
+	static ZooKeeperEnsemble ensembleOf(String path) {
+		ZooKeeperEnsembleRouter current = router;
+		return current == null ? null : current.route(path);
+	}
+
+	/**
+	 * 获取锁路径所在集群的ZK客户端
+	 */
+	static CuratorFramework getClient(String path) {
+		ZooKeeperEnsemble target = ensembleOf(path);
+		return target == null ? null : target.getClient();
+	}
+
+	/**
+	 * 设置锁失效监听器: 持有锁期间连接中断、会话失效或连接恢复时回调
+	 * @param lockListener 锁失效监听器
+	 */
+	public void setLockListener(ZooKeeperLockListener lockListener) {
+		this.lockListener = lockListener;
+	}
+
+	/**
+	 * 锁路径所在集群的ZK客户端是否已启动
+	 */
+	static boolean isClientStarted(String path) {
+		ZooKeeperEnsemble target = ensembleOf(path);
+		return target != null && target.isStarted();
+	}
+
 	@Override
 	public boolean tryLock(long maxWait, TimeUnit waitUnit) {
 		if (lock == null) {
 			return false;
 		}
 		try {
-			// 加锁
-			return lock.acquire(maxWait, waitUnit);
+			// 加锁(连接中断期间立即失败, 等待中的加锁随连接中断立即中止)
+			boolean locked = ensemble.getConnectionGuard().acquire(() -> lock.acquire(maxWait, waitUnit));
+			if (locked) {
+				fencingToken = lock instanceof ZooKeeperMutex ? ((ZooKeeperMutex) lock).fencingToken() : NO_FENCING_TOKEN;
+				if (lockListener != null) {
+					ensemble.getConnectionGuard().addHolder(this);
+				}
+			}
+			return locked;
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage(), e);
 		}
@@ -58,22 +127,94 @@ public class ZooKeeperDistributedLock implements DistributedLock {
 		return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
 	}
 
+	/**
+	 * 防护令牌: 锁节点的创建事务号(czxid), ZK事务号全局递增, 后来的持有者必然更大
+	 */
+	@Override
+	public long getFencingToken() {
+		return fencingToken;
+	}
+
+	/**
+	 * 释放锁: 由当前线程同步加锁持有的锁释放Curator锁, 由异步加锁持有的锁删除异步锁节点, 两种加锁方式均可用本方法释放
+	 */
 	@Override
 	public void realseLock() {
-		if (lock == null) {
+		try {
+			if (lock != null && lock.isOwnedByCurrentThread()) {
+				ensemble.getConnectionGuard().removeHolder(this);
+				// 解锁(父节点为容器节点, 由ZK自动清理, 无需删除)
+				lock.release();
+			} else if (asyncLock != null && asyncLock.isHeld()) {
+				asyncLock.release().toCompletableFuture().join();
+			}
+		} catch (Exception e) {
+			LOGGER.error("release zookeeper lock " + path + " failed", e);
+		}
+	}
+
+	/**
+	 * 连接状态变化时通知锁失效监听器
+	 */
+	void onConnectionStateChanged(ConnectionState state) {
+		ZooKeeperLockListener listener = lockListener;
+		if (listener == null) {
 			return;
 		}
 		try {
-			// 解锁
-			lock.release();
-
-			// 删除节点
-			client.delete().forPath(path);
+			if (state == ConnectionState.SUSPENDED) {
+				listener.lockSuspended(path);
+			} else if (state == ConnectionState.LOST) {
+				listener.lockLost(path);
+			} else if (state == ConnectionState.RECONNECTED) {
+				listener.lockReconnected(path);
+			}
 		} catch (Exception e) {
-			// LOGGER.error(e.getMessage(), e);
+			LOGGER.error(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * 异步加锁: 等待期间只监听前驱节点, 由watch和共享定时器驱动, 不占用线程
+	 */
+	@Override
+	public CompletableFuture<Boolean> tryLockAsync(long maxWait, TimeUnit waitUnit) {
+		if (ensemble == null || !ensemble.isStarted()) {
+			return CompletableFuture.completedFuture(false);
+		}
+		if (asyncLock == null) {
+			asyncLock = new ZooKeeperAsyncLock(ensemble, path);
+		}
+		ZooKeeperAsyncLock current = asyncLock;
+		return current.acquire(maxWait, waitUnit).thenApply(locked -> {
+			if (locked) {
+				fencingToken = current.getFencingToken();
+			}
+			return locked;
+		}).toCompletableFuture();
+	}
+
+	/**
+	 * 异步释放锁: 异步加锁持有的锁异步删除锁节点; 当前线程同步加锁持有的锁(Curator锁只能由持有线程释放)在调用线程中释放
+	 */
+	@Override
+	public CompletableFuture<Void> releaseAsync() {
+		if (asyncLock != null && asyncLock.isHeld()) {
+			return asyncLock.release().toCompletableFuture();
+		}
+		if (lock != null && lock.isOwnedByCurrentThread()) {
+			try {
+				ensemble.getConnectionGuard().removeHolder(this);
+				lock.release();
+			} catch (Exception e) {
+				CompletableFuture<Void> failed = new CompletableFuture<>();
+				failed.completeExceptionally(e);
+				return failed;
+			}
+		}
+		return CompletableFuture.completedFuture(null);
+	}
+
 	/**
 	 * 分布式锁客户端初始化
 	 * @author XUZIMING 2019-10-25
@@ -85,49 +226,80 @@ public class ZooKeeperDistributedLock implements DistributedLock {
 		/** 连接超时时间, 默认15秒 */
 		private static final int CONNECTION_TIMEOUT = 15000;
 
+		/** 最大重试次数 */
+		private static final int MAX_RETRIES = 3;
+
 		private String distributeLockZooKeeper;
 
 		private String distributeLockNamespace;
 
+		/** 自定义重试策略, 为null时使用CURATOR指数退避 */
+		private LockRetryPolicy retryPolicy;
+
+		/** 锁实例空闲移除时间(毫秒) */
+		private long mutexIdleMillis = ZooKeeperMutexRegistry.DEFAULT_IDLE_MILLIS;
+
 		public ClientInitializer(String distributeLockZooKeeper, String distributeLockNamespace) {
 			this.distributeLockZooKeeper = distributeLockZooKeeper;
 			this.distributeLockNamespace = distributeLockNamespace;
 		}
 
+		/**
+		 * 设置ZK客户端的重试策略(须在init之前设置)<br>
+		 * 加锁等待由watch驱动, 重试策略作用于连接中断等可重试的ZK操作
+		 * @param retryPolicy 重试策略
+		 */
+		public void setRetryPolicy(LockRetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
+		}
+
+		/**
+		 * 设置锁实例的空闲移除时间(默认60秒, 须在init之前设置)
+		 * @param mutexIdleMillis 空闲移除时间(毫秒)
+		 */
+		public void setMutexIdleMillis(long mutexIdleMillis) {
+			this.mutexIdleMillis = mutexIdleMillis;
+		}
+
 		/**
 		 * 客户端初始化方法
 		 */
 		public void init() {
-			String connectString = parseConnectString(distributeLockZooKeeper);
+			List<String> connectStrings = parseConnectStrings(distributeLockZooKeeper);
 
-			// 重试策略：最多重试3次, 每次间隔1秒
-			RetryPolicy retryPolicy = new ExponentialBackoffRetry(1000, 3);
+			// 重试策略：最多重试3次, 默认基础间隔1秒指数退避
+			RetryPolicy retryPolicy = this.retryPolicy != null ?
+					new CuratorRetryPolicyAdapter(this.retryPolicy, MAX_RETRIES) : new ExponentialBackoffRetry(1000, MAX_RETRIES);
 
 			// 通过工厂创建连接, 以下是官网的使用建议:
 			// Curator connection instances (CuratorFramework) are allocated from the CuratorFrameworkFactory.
 			// You only need one CuratorFramework object for each ZooKeeper cluster you are connecting to.
-			client = CuratorFrameworkFactory.builder().connectString(connectString).sessionTimeoutMs(SESSION_TIMEOUT)
-					.connectionTimeoutMs(CONNECTION_TIMEOUT).retryPolicy(retryPolicy).namespace(distributeLockNamespace).build();
+			List<ZooKeeperEnsemble> ensembles = new ArrayList<>(connectStrings.size());
+			for (String connectString : connectStrings) {
+				CuratorFramework client = CuratorFrameworkFactory.builder().connectString(connectString).sessionTimeoutMs(SESSION_TIMEOUT)
+						.connectionTimeoutMs(CONNECTION_TIMEOUT).retryPolicy(retryPolicy).namespace(distributeLockNamespace).build();
+				ensembles.add(new ZooKeeperEnsemble(connectString, client, mutexIdleMillis));
+
+				// 开启连接
+				client.start();
+			}
 
-			// 开启连接
-			client.start();
+			router = new ZooKeeperEnsembleRouter(ensembles);
 		}
 
 		/**
-		 * 解析ZooKeeper服务器的连接地址(增加处理ZK多集群的解析情况)
+		 * 解析ZooKeeper服务器的连接地址(多个ZK集群以"|"分隔, 锁路径按一致性哈希分布到各个集群)
 		 * @param zookeeperAddress ZooKeeper或ZooKeeper集群地址
-		 * @return
+		 * @return 每个ZK集群的连接地址
 		 */
-		private static String parseConnectString(String zookeeperAddress) {
+		private static List<String> parseConnectStrings(String zookeeperAddress) {
 			String zkAddress = StringUtils.deleteWhitespace(zookeeperAddress);
 
-			// 多个ZK集群的情况下, 截取配置的最后一个
-			if (StringUtils.contains(zkAddress, "|")) {
-				String[] multiZk = StringUtils.split(zkAddress, "|");
-				zkAddress = multiZk[multiZk.length - 1];
+			List<String> connectStrings = new ArrayList<>();
+			for (String singleZk : StringUtils.split(zkAddress, "|")) {
+				connectStrings.add(singleZk.replace("zookeeper://", "").replace("?backup=", ","));
 			}
-
-			return zkAddress.replace("zookeeper://", "").replace("?backup=", ",");
+			return connectStrings;
 		}
 
 	}
@@ -1,11 +1,39 @@
 package com.simon.credit.service.zookeeper;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
- * 分布式锁路径建造器
+ * 分布式锁路径建造器<br>
+ * 默认平铺布局(/business/resource), 资源数量很大的业务可单独设置哈希分桶布局;
+ * 切换布局会改变锁路径, 所有进程须同时切换
  * @author XUZIMING 2019-10-25
  */
 public class ZooKeeperDistributedLockPathBuilder {
 
+	/** 按业务设置的路径布局 */
+	private static final ConcurrentMap<String, ZooKeeperLockPathLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+	/** 默认路径布局 */
+	private static volatile ZooKeeperLockPathLayout defaultLayout = ZooKeeperLockPathLayouts.flat();
+
+	/**
+	 * 设置指定业务的路径布局
+	 * @param business 上锁业务
+	 * @param layout 路径布局
+	 */
+	public static void setLayout(String business, ZooKeeperLockPathLayout layout) {
+		LAYOUTS.put(business, layout);
+	}
+
+	/**
+	 * 设置默认路径布局
+	 * @param layout 路径布局
+	 */
+	public static void setDefaultLayout(ZooKeeperLockPathLayout layout) {
+		defaultLayout = layout;
+	}
+
 	/**
 	 * 解析分布式锁路径
 	 * @param business 上锁业务
@@ -13,12 +41,17 @@ public class ZooKeeperDistributedLockPathBuilder {
 	 * @return
 	 */
 	public static final String build(String business, String resource) {
-		return "/" + business + "/" + resource;
+		ZooKeeperLockPathLayout layout = LAYOUTS.get(business);
+		return (layout != null ? layout : defaultLayout).build(business, resource);
 	}
 
 	public static void main(String[] args) {
 		String lockPath = ZooKeeperDistributedLockPathBuilder.build("whitelistCheck", "checkWhitelistBatch1");
 		System.out.println(lockPath);
+
+		ZooKeeperDistributedLockPathBuilder.setLayout("whitelistCheck", ZooKeeperLockPathLayouts.hashBuckets(256, 2));
+		lockPath = ZooKeeperDistributedLockPathBuilder.build("whitelistCheck", "checkWhitelistBatch1");
+		System.out.println(lockPath);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package com.simon.credit.service.zookeeper;
+
+import org.apache.curator.framework.recipes.locks.InterProcessReadWriteLock;
+
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.DistributedReadWriteLock;
+
+/**
+ * 分布式读写锁(基于APACHE CURATOR读写锁进行二次封装)<br>
+ * 读写锁节点按请求顺序排队, 排在写锁之后的读者须等待, 写者不会饥饿
+ * @author XUZIMING 2026-10-18
+ */
+public class ZooKeeperDistributedReadWriteLock implements DistributedReadWriteLock {
+
+	private final DistributedLock readLock;
+
+	private final DistributedLock writeLock;
+
+	public ZooKeeperDistributedReadWriteLock(String path) {
+		if (ZooKeeperDistributedLock.isClientStarted(path)) {
+			InterProcessReadWriteLock lock = new InterProcessReadWriteLock(ZooKeeperDistributedLock.getClient(path), path);
+			this.readLock = new ZooKeeperDistributedLock(path, lock.readLock());
+			this.writeLock = new ZooKeeperDistributedLock(path, lock.writeLock());
+		} else {
+			this.readLock = new ZooKeeperDistributedLock(path, null);
+			this.writeLock = new ZooKeeperDistributedLock(path, null);
+		}
+	}
+
+	@Override
+	public DistributedLock readLock() {
+		return readLock;
+	}
+
+	@Override
+	public DistributedLock writeLock() {
+		return writeLock;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.recipes.locks.InterProcessSemaphoreV2;
+import org.apache.curator.framework.recipes.locks.Lease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simon.credit.service.DistributedSemaphore;
+
+/**
+ * 分布式信号量(基于APACHE CURATOR信号量进行二次封装)<br>
+ * 许可为临时节点, 持有节点会话失效后许可自动回收. 实例可在多线程间共享
+ * @author XUZIMING 2026-10-18
+ */
+public class ZooKeeperDistributedSemaphore implements DistributedSemaphore {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ZooKeeperDistributedSemaphore.class);
+
+	/** 信号量路径所在的ZK集群 */
+	private ZooKeeperEnsemble ensemble;
+
+	private InterProcessSemaphoreV2 semaphore;
+
+	/** 已获取的许可 */
+	private final ConcurrentLinkedDeque<Lease> leases = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * @param path 信号量路径
+	 * @param maxPermits 集群范围的许可总数
+	 */
+	public ZooKeeperDistributedSemaphore(String path, int maxPermits) {
+		ensemble = ZooKeeperDistributedLock.ensembleOf(path);
+		if (ensemble != null && ensemble.isStarted()) {
+			semaphore = new InterProcessSemaphoreV2(ensemble.getClient(), path, maxPermits);
+		}
+	}
+
+	@Override
+	public boolean tryAcquire(int permits, long maxWait, TimeUnit waitUnit) {
+		if (semaphore == null) {
+			return false;
+		}
+		try {
+			// 连接中断期间立即失败, 等待中的获取随连接中断立即中止
+			return ensemble.getConnectionGuard().acquire(() -> {
+				Collection<Lease> acquired = semaphore.acquire(permits, maxWait, waitUnit);
+				if (acquired == null) {
+					return false;
+				}
+				leases.addAll(acquired);
+				return true;
+			});
+		} catch (Exception e) {
+			LOGGER.error(e.getMessage(), e);
+		}
+		return false;
+	}
+
+	@Override
+	public boolean tryAcquire(long maxWait, TimeUnit waitUnit) {
+		return tryAcquire(1, maxWait, waitUnit);
+	}
+
+	@Override
+	public void release(int permits) {
+		if (semaphore == null) {
+			return;
+		}
+		List<Lease> released = new ArrayList<>(permits);
+		for (int i = 0; i < permits; i++) {
+			Lease lease = leases.pollLast();
+			if (lease == null) {
+				break;
+			}
+			released.add(lease);
+		}
+		semaphore.returnAll(released);
+	}
+
+	@Override
+	public void release() {
+		release(1);
+	}
+
+}
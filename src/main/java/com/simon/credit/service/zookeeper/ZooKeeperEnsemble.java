@@ -0,0 +1,52 @@
+package com.simon.credit.service.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+
+/**
+ * 单个ZK集群的锁资源: 客户端及随客户端创建的可重入锁注册表、连接状态守卫
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperEnsemble {
+
+	/** 连接地址(同时作为一致性哈希的节点名) */
+	private final String connectString;
+
+	private final CuratorFramework client;
+
+	private final ZooKeeperMutexRegistry mutexRegistry;
+
+	private final ZooKeeperConnectionGuard connectionGuard;
+
+	ZooKeeperEnsemble(String connectString, CuratorFramework client, long mutexIdleMillis) {
+		this.connectString = connectString;
+		this.client = client;
+		this.mutexRegistry = new ZooKeeperMutexRegistry(client, mutexIdleMillis);
+		this.connectionGuard = new ZooKeeperConnectionGuard();
+		client.getConnectionStateListenable().addListener(connectionGuard);
+	}
+
+	String getConnectString() {
+		return connectString;
+	}
+
+	CuratorFramework getClient() {
+		return client;
+	}
+
+	ZooKeeperMutexRegistry getMutexRegistry() {
+		return mutexRegistry;
+	}
+
+	ZooKeeperConnectionGuard getConnectionGuard() {
+		return connectionGuard;
+	}
+
+	/**
+	 * 客户端是否已启动
+	 */
+	boolean isStarted() {
+		return client.getState() == CuratorFrameworkState.STARTED;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ZK集群路由: 按锁路径一致性哈希到某一个ZK集群, 同一路径总是落在同一集群上<br>
+ * 与Jedis分片相同, 每个集群在哈希环上有160个虚拟节点, 节点名为集群连接地址, 增减集群时只有少量路径迁移;
+ * 所有进程必须配置相同的集群列表, 否则同一路径可能落在不同集群上而失去互斥
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperEnsembleRouter {
+
+	/** 每个集群的虚拟节点数 */
+	private static final int VIRTUAL_NODES = 160;
+
+	private final List<ZooKeeperEnsemble> ensembles;
+
+	private final TreeMap<Long, ZooKeeperEnsemble> ring = new TreeMap<>();
+
+	ZooKeeperEnsembleRouter(List<ZooKeeperEnsemble> ensembles) {
+		if (ensembles.isEmpty()) {
+			throw new IllegalArgumentException("ensembles can not be empty.");
+		}
+		this.ensembles = Collections.unmodifiableList(ensembles);
+		for (ZooKeeperEnsemble ensemble : ensembles) {
+			for (int i = 0; i < VIRTUAL_NODES; i++) {
+				ring.put(ZooKeeperHashing.murmur64(ensemble.getConnectString() + "-NODE-" + i), ensemble);
+			}
+		}
+	}
+
+	/**
+	 * 获取锁路径所在的ZK集群
+	 * @param path 锁路径
+	 * @return ZK集群
+	 */
+	ZooKeeperEnsemble route(String path) {
+		if (ensembles.size() == 1) {
+			return ensembles.get(0);
+		}
+		Map.Entry<Long, ZooKeeperEnsemble> entry = ring.ceilingEntry(ZooKeeperHashing.murmur64(path));
+		return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+	}
+
+	List<ZooKeeperEnsemble> getEnsembles() {
+		return ensembles;
+	}
+
+}
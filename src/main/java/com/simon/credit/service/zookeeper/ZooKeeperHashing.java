@@ -0,0 +1,50 @@
+package com.simon.credit.service.zookeeper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 锁路径哈希: 64位MurmurHash(MurmurHash64A), 字符串按UTF-8编码, 种子与Jedis分片相同,
+ * 同一字符串在各版本、各进程中的哈希值保持不变
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperHashing {
+
+	private static final int SEED = 0x1234ABCD;
+
+	private static final long M = 0xc6a4a7935bd1e995L;
+
+	private static final int R = 47;
+
+	private ZooKeeperHashing() {}
+
+	static long murmur64(String key) {
+		ByteBuffer buf = ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8)).order(ByteOrder.LITTLE_ENDIAN);
+		long h = SEED ^ (buf.remaining() * M);
+
+		while (buf.remaining() >= 8) {
+			long k = buf.getLong();
+			k *= M;
+			k ^= k >>> R;
+			k *= M;
+
+			h ^= k;
+			h *= M;
+		}
+
+		if (buf.remaining() > 0) {
+			// 剩余不足8字节时按小端补零
+			ByteBuffer finish = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+			finish.put(buf).rewind();
+			h ^= finish.getLong();
+			h *= M;
+		}
+
+		h ^= h >>> R;
+		h *= M;
+		h ^= h >>> R;
+		return h;
+	}
+
+}
@@ -0,0 +1,26 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.simon.credit.service.DaemonThreadFactory;
+
+/**
+ * ZK分布式锁异步执行所需的共享线程池: 回调线程池交付加锁结果, 定时器负责超时,
+ * 等待中的加锁请求不占用任何线程
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperLockExecutors {
+
+	/** 加锁结果回调线程池(调用方的后续处理不阻塞ZK事件线程) */
+	static final ExecutorService CALLBACK_EXECUTOR = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory("zookeeper-lock-callback"));
+
+	/** 定时器 */
+	static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+			new DaemonThreadFactory("zookeeper-lock-timer"));
+
+	private ZooKeeperLockExecutors() {}
+
+}
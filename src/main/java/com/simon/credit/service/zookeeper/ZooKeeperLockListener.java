@@ -0,0 +1,27 @@
+package com.simon.credit.service.zookeeper;
+
+/**
+ * ZK分布式锁持有者监听器(在CURATOR连接状态线程中回调, 不可阻塞)
+ * @author XUZIMING 2026-10-18
+ */
+public interface ZooKeeperLockListener {
+
+	/**
+	 * 连接中断(SUSPENDED): 会话可能即将过期, 锁可能已被其它节点获取, 应暂停依赖锁的写操作
+	 * @param path 分布式锁路径
+	 */
+	void lockSuspended(String path);
+
+	/**
+	 * 会话失效(LOST): 锁节点已被删除, 锁已失效
+	 * @param path 分布式锁路径
+	 */
+	void lockLost(String path);
+
+	/**
+	 * 连接恢复(RECONNECTED): 会话未过期, 锁仍然有效
+	 * @param path 分布式锁路径
+	 */
+	default void lockReconnected(String path) {}
+
+}
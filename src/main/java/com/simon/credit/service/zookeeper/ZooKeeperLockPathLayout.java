@@ -0,0 +1,18 @@
+package com.simon.credit.service.zookeeper;
+
+/**
+ * 分布式锁路径布局策略
+ * @author XUZIMING 2026-10-18
+ */
+@FunctionalInterface
+public interface ZooKeeperLockPathLayout {
+
+	/**
+	 * 生成分布式锁路径
+	 * @param business 上锁业务
+	 * @param resource 上锁资源
+	 * @return 分布式锁路径, 可直接用于{@link ZooKeeperDistributedLock}等锁的构造
+	 */
+	String build(String business, String resource);
+
+}
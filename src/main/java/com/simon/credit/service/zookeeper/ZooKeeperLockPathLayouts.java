@@ -0,0 +1,51 @@
+package com.simon.credit.service.zookeeper;
+
+/**
+ * 内置的分布式锁路径布局
+ * @author XUZIMING 2026-10-18
+ */
+public final class ZooKeeperLockPathLayouts {
+
+	private static final ZooKeeperLockPathLayout FLAT = (business, resource) -> "/" + business + "/" + resource;
+
+	private ZooKeeperLockPathLayouts() {}
+
+	/**
+	 * 平铺布局: /business/resource, 同一业务的全部资源位于同一父节点下
+	 */
+	public static ZooKeeperLockPathLayout flat() {
+		return FLAT;
+	}
+
+	/**
+	 * 哈希分桶布局: /business/{桶}/.../{桶}/resource, 按资源的哈希值逐级插入桶节点,
+	 * 每个父节点的子节点数不超过fanOut(最后一级为资源数/fanOut^levels), 子节点列表与watch的开销不随资源数增长<br>
+	 * 桶名为固定宽度的十六进制数, 哈希与进程无关, 所有进程对同一资源得到相同路径
+	 * @param fanOut 每级桶数(2~65536)
+	 * @param levels 桶的层级数(1~4)
+	 */
+	public static ZooKeeperLockPathLayout hashBuckets(int fanOut, int levels) {
+		if (fanOut < 2 || fanOut > 65536) {
+			throw new IllegalArgumentException("fanOut must be between 2 and 65536.");
+		}
+		if (levels < 1 || levels > 4) {
+			throw new IllegalArgumentException("levels must be between 1 and 4.");
+		}
+		int width = Integer.toHexString(fanOut - 1).length();
+		return (business, resource) -> {
+			StringBuilder path = new StringBuilder("/").append(business);
+			long hash = ZooKeeperHashing.murmur64(resource);
+			for (int i = 0; i < levels; i++) {
+				String bucket = Long.toHexString(Long.remainderUnsigned(hash, fanOut));
+				path.append('/');
+				for (int pad = bucket.length(); pad < width; pad++) {
+					path.append('0');
+				}
+				path.append(bucket);
+				hash = Long.divideUnsigned(hash, fanOut);
+			}
+			return path.append('/').append(resource).toString();
+		};
+	}
+
+}
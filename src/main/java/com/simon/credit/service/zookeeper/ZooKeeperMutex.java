@@ -0,0 +1,69 @@
+package com.simon.credit.service.zookeeper;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.framework.recipes.locks.StandardLockInternalsDriver;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.data.Stat;
+
+import com.simon.credit.service.DistributedLock;
+
+/**
+ * 可取得当前线程锁节点路径及防护令牌的CURATOR可重入锁<br>
+ * 创建锁节点时由响应带回节点状态, 防护令牌(节点的创建事务号czxid)不增加往返
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperMutex extends InterProcessMutex {
+
+	private final StatDriver driver;
+
+	ZooKeeperMutex(CuratorFramework client, String path) {
+		this(client, path, new StatDriver());
+	}
+
+	private ZooKeeperMutex(CuratorFramework client, String path, StatDriver driver) {
+		super(client, path, driver);
+		this.driver = driver;
+	}
+
+	/**
+	 * 当前线程持有的锁节点路径, 未持有时为null
+	 */
+	String currentLockPath() {
+		return getLockPath();
+	}
+
+	/**
+	 * 当前线程持有的锁节点的创建事务号, 未持有时返回{@link DistributedLock#NO_FENCING_TOKEN}
+	 */
+	long fencingToken() {
+		if (currentLockPath() == null) {
+			return DistributedLock.NO_FENCING_TOKEN;
+		}
+		Long czxid = driver.czxid.get();
+		return czxid == null ? DistributedLock.NO_FENCING_TOKEN : czxid;
+	}
+
+	/**
+	 * 创建锁节点时记录节点状态(与标准实现使用相同的创建选项); 锁节点由加锁线程创建, 按线程记录
+	 */
+	private static final class StatDriver extends StandardLockInternalsDriver {
+		private final ThreadLocal<Long> czxid = new ThreadLocal<>();
+
+		@Override
+		public String createsTheLock(CuratorFramework client, String path, byte[] lockNodeBytes) throws Exception {
+			Stat stat = new Stat();
+			String ourPath;
+			if (lockNodeBytes != null) {
+				ourPath = client.create().storingStatIn(stat).creatingParentContainersIfNeeded().withProtection()
+						.withMode(CreateMode.EPHEMERAL_SEQUENTIAL).forPath(path, lockNodeBytes);
+			} else {
+				ourPath = client.create().storingStatIn(stat).creatingParentContainersIfNeeded().withProtection()
+						.withMode(CreateMode.EPHEMERAL_SEQUENTIAL).forPath(path);
+			}
+			czxid.set(stat.getCzxid());
+			return ourPath;
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.CuratorFramework;
+
+/**
+ * 分布式可重入锁注册表<br>
+ * 同一客户端、同一路径复用同一个锁实例, 同一JVM内的线程共享锁的重入状态;
+ * 空闲超过指定时间且本进程未持有的锁实例会被移除, 移除在获取锁实例时顺带进行, 不占用额外线程<br>
+ * 锁节点的父节点由CURATOR以容器节点创建, 子节点全部删除后由ZK自动清理, 释放锁时无需再删除
+ * @author XUZIMING 2026-10-18
+ */
+final class ZooKeeperMutexRegistry {
+
+	/** 默认空闲移除时间(毫秒) */
+	static final long DEFAULT_IDLE_MILLIS = 60000L;
+
+	private final CuratorFramework client;
+
+	/** 锁实例(key: 锁路径) */
+	private final ConcurrentMap<String, Entry> mutexes = new ConcurrentHashMap<>();
+
+	/** 上次清理时间 */
+	private final AtomicLong lastSweepMillis = new AtomicLong(System.currentTimeMillis());
+
+	/** 空闲移除时间(毫秒) */
+	private final long idleMillis;
+
+	ZooKeeperMutexRegistry(CuratorFramework client, long idleMillis) {
+		if (idleMillis <= 0) {
+			throw new IllegalArgumentException("idleMillis must be positive.");
+		}
+		this.client = client;
+		this.idleMillis = idleMillis;
+	}
+
+	/**
+	 * 获取锁路径对应的锁实例, 不存在时创建(创建锁实例不访问ZK)
+	 * @param path 锁路径
+	 * @return 锁实例
+	 */
+	ZooKeeperMutex get(String path) {
+		long now = System.currentTimeMillis();
+		Entry entry = mutexes.compute(path, (key, existing) -> {
+			Entry result = existing != null ? existing : new Entry(new ZooKeeperMutex(client, key));
+			result.lastAccessMillis = now;
+			return result;
+		});
+
+		long lastSweep = lastSweepMillis.get();
+		if (now - lastSweep >= idleMillis && lastSweepMillis.compareAndSet(lastSweep, now)) {
+			evictIdle(now);
+		}
+		return entry.mutex;
+	}
+
+	/**
+	 * 移除空闲的锁实例(本进程持有中的锁实例不移除)
+	 */
+	void evictIdle(long now) {
+		for (String path : mutexes.keySet()) {
+			mutexes.computeIfPresent(path, (key, entry) ->
+				now - entry.lastAccessMillis >= idleMillis && !entry.mutex.isAcquiredInThisProcess() ? null : entry);
+		}
+	}
+
+	int size() {
+		return mutexes.size();
+	}
+
+	private static final class Entry {
+		private final ZooKeeperMutex mutex;
+
+		private volatile long lastAccessMillis;
+
+		Entry(ZooKeeperMutex mutex) {
+			this.mutex = mutex;
+		}
+	}
+
+}
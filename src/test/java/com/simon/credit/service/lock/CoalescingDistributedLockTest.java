@@ -0,0 +1,108 @@
+package com.simon.credit.service.lock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.simon.credit.service.DistributedLock;
+
+/**
+ * 本地合并锁测试(不依赖Redis/ZooKeeper): 远程锁由内存实现代替, 统计同时竞争远程锁的线程数
+ */
+public class CoalescingDistributedLockTest {
+
+    private static final String LOCK_KEY = "lock_credit_risk_coalescing";
+
+    private static final int THREADS = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        LocalLockTable lockTable = new LocalLockTable();
+        RemoteLock remote = new RemoteLock();
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(THREADS);
+
+        for (int i = 1; i <= THREADS; i++) {
+            new Thread(() -> {
+                DistributedLock lock = new CoalescingDistributedLock(lockTable, LOCK_KEY, remote);
+                try {
+                    if (lock.tryLock(10, TimeUnit.SECONDS)) {
+                        acquired.incrementAndGet();
+                        TimeUnit.MILLISECONDS.sleep(5);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.realseLock();
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        check(acquired.get() == THREADS, "all threads acquired the lock: " + acquired.get());
+        check(remote.maxContenders.get() == 1, "remote contenders per JVM: " + remote.maxContenders.get());
+        check(lockTable.size() == 0, "local lock table drained: " + lockTable.size());
+
+        // 本地排队超时: 不竞争远程锁, 也不在锁表中遗留条目
+        DistributedLock holder = new CoalescingDistributedLock(lockTable, LOCK_KEY, remote);
+        check(holder.tryLock(1, TimeUnit.SECONDS), "holder acquired the lock");
+        Thread waiter = new Thread(() -> {
+            DistributedLock lock = new CoalescingDistributedLock(lockTable, LOCK_KEY, remote);
+            check(!lock.tryLock(50, TimeUnit.MILLISECONDS), "waiter timed out locally");
+        });
+        int remoteAttempts = remote.attempts.get();
+        waiter.start();
+        waiter.join();
+        check(remote.attempts.get() == remoteAttempts, "waiter did not contend for the remote lock");
+        holder.realseLock();
+        check(lockTable.size() == 0, "local lock table drained after timeout: " + lockTable.size());
+
+        System.out.println("CoalescingDistributedLockTest passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+        System.out.println("ok: " + message);
+    }
+
+    /**
+     * 内存中的远程锁: 记录加锁次数及同时竞争的最大线程数
+     */
+    private static final class RemoteLock implements DistributedLock {
+        private final AtomicInteger contenders = new AtomicInteger();
+        private final AtomicInteger maxContenders = new AtomicInteger();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile boolean locked;
+
+        @Override
+        public boolean tryLock(long maxWait, TimeUnit waitUnit) {
+            attempts.incrementAndGet();
+            int current = contenders.incrementAndGet();
+            maxContenders.accumulateAndGet(current, Math::max);
+            try {
+                synchronized (this) {
+                    if (locked) {
+                        return false;
+                    }
+                    locked = true;
+                    return true;
+                }
+            } finally {
+                contenders.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            return tryLock(LOCK_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public synchronized void realseLock() {
+            locked = false;
+        }
+    }
+
+}
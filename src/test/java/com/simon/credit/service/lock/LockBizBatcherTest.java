@@ -0,0 +1,137 @@
+package com.simon.credit.service.lock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * 加锁业务批量执行测试(不依赖Redis): 以本地锁代替分布式锁, 每次加锁发放新的防护令牌
+ */
+public class LockBizBatcherTest {
+
+    private static final String LOCK_NAME = "lock_credit_risk_batch";
+
+    private static final int TASKS = 200;
+
+    private static final int MAX_BATCH_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        StubBizLock bizLock = new StubBizLock();
+        bizLock.setBizExecutor(executor);
+        bizLock.setBatchLimits(MAX_BATCH_SIZE, TimeUnit.SECONDS.toMillis(10));
+
+        // 第一个业务阻塞到全部业务提交完成, 其余业务在队列中等待批量执行
+        CountDownLatch submitted = new CountDownLatch(1);
+        Map<Long, AtomicInteger> tasksPerToken = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            final boolean first = i == 0;
+            futures.add(bizLock.submit(LOCK_NAME, (FencedLockBiz) fencingToken -> {
+                if (first) {
+                    await(submitted);
+                }
+                tasksPerToken.computeIfAbsent(fencingToken, token -> new AtomicInteger()).incrementAndGet();
+            }));
+        }
+        submitted.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        int expectedBatches = (TASKS - 1) / MAX_BATCH_SIZE + 1;
+        check(bizLock.acquisitions.get() == expectedBatches, "acquisitions for " + TASKS + " tasks: " + bizLock.acquisitions.get());
+        int executed = 0;
+        for (AtomicInteger count : tasksPerToken.values()) {
+            check(count.get() <= MAX_BATCH_SIZE, "batch size within limit: " + count.get());
+            executed += count.get();
+        }
+        check(executed == TASKS, "every task executed once: " + executed);
+
+        // 单个业务失败只影响自己的结果
+        CompletableFuture<Void> failed = bizLock.submit(LOCK_NAME, (FencedLockBiz) fencingToken -> {
+            throw new IllegalStateException("biz failure");
+        });
+        CompletableFuture<Void> succeeded = bizLock.submit(LOCK_NAME, (FencedLockBiz) fencingToken -> {});
+        check(causeOf(failed) instanceof IllegalStateException, "failing task completes exceptionally");
+        succeeded.get(10, TimeUnit.SECONDS);
+        System.out.println("ok: other tasks in the batch still succeed");
+
+        // 加锁失败时本批次的业务以TimeoutException失败, 业务不执行
+        bizLock.unavailable = true;
+        AtomicInteger executedWithoutLock = new AtomicInteger();
+        CompletableFuture<Void> timedOut = bizLock.submit(LOCK_NAME, (FencedLockBiz) fencingToken -> executedWithoutLock.incrementAndGet());
+        check(causeOf(timedOut) instanceof TimeoutException, "task fails with TimeoutException when the lock is unavailable");
+        check(executedWithoutLock.get() == 0, "task is not executed without the lock");
+
+        // 业务线程池拒绝时本批次的业务失败, 之后的提交重新启动批次
+        bizLock.unavailable = false;
+        executor.shutdown();
+        CompletableFuture<Void> rejected = bizLock.submit(LOCK_NAME, (FencedLockBiz) fencingToken -> {});
+        check(rejected.isCompletedExceptionally(), "task fails when the executor rejects the batch");
+        bizLock.setBizExecutor(Runnable::run);
+        bizLock.submit(LOCK_NAME, (FencedLockBiz) fencingToken -> {}).get(10, TimeUnit.SECONDS);
+        System.out.println("ok: batching resumes after a rejected batch");
+
+        System.out.println("LockBizBatcherTest passed");
+    }
+
+    private static Throwable causeOf(CompletableFuture<Void> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+        System.out.println("ok: " + message);
+    }
+
+    /**
+     * 以本地锁代替分布式锁, 统计加锁次数
+     */
+    private static final class StubBizLock extends RedisDistributedBizLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong fencingTokens = new AtomicLong();
+        private final AtomicInteger acquisitions = new AtomicInteger();
+        private volatile boolean unavailable;
+
+        @Override
+        <T> T execute(String lockName, LongFunction<T> biz, long maxWait, TimeUnit waitUnit) throws TimeoutException {
+            if (unavailable) {
+                throw new TimeoutException("hasn't acquired distributed lock " + lockName);
+            }
+            lock.lock();
+            try {
+                acquisitions.incrementAndGet();
+                return biz.apply(fencingTokens.incrementAndGet());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
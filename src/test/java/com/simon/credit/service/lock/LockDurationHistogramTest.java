@@ -0,0 +1,63 @@
+package com.simon.credit.service.lock;
+
+/**
+ * 加锁业务执行时长直方图测试(不依赖Redis)
+ */
+public class LockDurationHistogramTest {
+
+    public static void main(String[] args) {
+        // 桶的上界覆盖落入该桶的时长, 相对误差不超过12.5%
+        int previous = -1;
+        for (long millis = 0; millis <= 1000000; millis++) {
+            int bucket = LockDurationHistogram.bucket(millis);
+            long upper = LockDurationHistogram.upperBound(bucket);
+            if (bucket < previous || upper < millis || upper - millis > millis / 8) {
+                throw new AssertionError("bucket " + bucket + " upper bound " + upper + " for " + millis + "ms");
+            }
+            if (bucket > 0 && LockDurationHistogram.upperBound(bucket - 1) >= millis) {
+                throw new AssertionError("previous bucket also covers " + millis + "ms");
+            }
+            previous = bucket;
+        }
+        System.out.println("ok: bucket bounds within 12.5% up to 1000000ms");
+        check(LockDurationHistogram.bucket(-5L) == 0, "negative durations fall into the first bucket");
+        check(LockDurationHistogram.upperBound(LockDurationHistogram.bucket(Long.MAX_VALUE)) == Long.MAX_VALUE, "last bucket reaches Long.MAX_VALUE");
+
+        LockDurationHistogram histogram = new LockDurationHistogram();
+        for (int i = 1; i < LockDurationHistogram.MIN_SAMPLES; i++) {
+            histogram.record(i);
+        }
+        check(histogram.percentile(0.99) == -1L, "no percentile below MIN_SAMPLES");
+
+        histogram = new LockDurationHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        long p99 = histogram.percentile(0.99);
+        check(p99 >= 990 && p99 <= 990 * 9 / 8, "p99 of 1..1000ms: " + p99);
+        long p50 = histogram.percentile(0.5);
+        check(p50 >= 500 && p50 <= 500 * 9 / 8, "p50 of 1..1000ms: " + p50);
+
+        // 耗时变化后旧样本按指数衰减, 分位数跟随新的耗时
+        histogram = new LockDurationHistogram();
+        for (int i = 0; i < 4000; i++) {
+            histogram.record(10L);
+        }
+        check(histogram.percentile(0.5) <= 10L, "p50 before the shift: " + histogram.percentile(0.5));
+        for (int i = 0; i < 12000; i++) {
+            histogram.record(1000L);
+        }
+        long shifted = histogram.percentile(0.5);
+        check(shifted >= 1000L && shifted <= 1000L * 9 / 8, "p50 follows the new durations: " + shifted);
+
+        System.out.println("LockDurationHistogramTest passed");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+        System.out.println("ok: " + message);
+    }
+
+}
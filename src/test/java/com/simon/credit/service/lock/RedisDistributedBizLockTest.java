@@ -0,0 +1,96 @@
+package com.simon.credit.service.lock;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.redisson.Redisson;
+import org.redisson.config.Config;
+
+/**
+ * 加锁执行业务并返回结果/异步加锁执行业务测试
+ */
+public class RedisDistributedBizLockTest {
+
+    private static final String LOCK_NAME = "lock_credit_risk_biz";
+
+    /** 锁内累加的计数, 加锁正确时不会丢失更新 */
+    private static int counter;
+
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://192.168.67.129:6379").setPassword("DevFtqw1206F").setDatabase(0);
+        Redisson redisson = (Redisson) Redisson.create(config);
+        RedisDistributedBizLock bizLock = newBizLock(redisson);
+
+        try {
+            // 同步加锁返回业务结果
+            int value = bizLock.lock(LOCK_NAME, () -> ++counter, 10, TimeUnit.SECONDS);
+            System.out.println("同步加锁返回: " + value);
+
+            // 异步加锁: 等待期间不占用线程, 业务在业务线程池执行, 释放锁之后完成
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(bizLock.lockAsync(LOCK_NAME, () -> ++counter, 20, TimeUnit.SECONDS));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+            if (counter != 101) {
+                throw new IllegalStateException("lost updates under the lock, counter: " + counter);
+            }
+            System.out.println("异步加锁完成, 计数: " + counter);
+
+            // 等待超时: 同步加锁抛出TimeoutException, 异步加锁以TimeoutException异常完成, 业务均不执行
+            CompletableFuture<Void> holder = bizLock.lockAsync(LOCK_NAME, () -> {
+                sleep(2000);
+                return null;
+            });
+            sleep(200);
+            try {
+                bizLock.lock(LOCK_NAME, () -> ++counter, 100, TimeUnit.MILLISECONDS);
+                throw new IllegalStateException("lock should have timed out");
+            } catch (TimeoutException e) {
+                System.out.println("同步加锁超时: " + e.getMessage());
+            }
+            try {
+                bizLock.lockAsync(LOCK_NAME, () -> ++counter, 100, TimeUnit.MILLISECONDS).get();
+                throw new IllegalStateException("lockAsync should have timed out");
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof TimeoutException)) {
+                    throw e;
+                }
+                System.out.println("异步加锁超时: " + e.getCause().getMessage());
+            }
+            holder.get(10, TimeUnit.SECONDS);
+            if (counter != 101) {
+                throw new IllegalStateException("biz executed without the lock, counter: " + counter);
+            }
+            System.out.println("RedisDistributedBizLockTest passed");
+        } finally {
+            redisson.shutdown();
+        }
+    }
+
+    /**
+     * 未使用Spring时手动注入Redisson
+     */
+    static RedisDistributedBizLock newBizLock(Redisson redisson) throws ReflectiveOperationException {
+        RedisDistributedBizLock bizLock = new RedisDistributedBizLock();
+        Field field = RedisDistributedBizLock.class.getDeclaredField("redisson");
+        field.setAccessible(true);
+        field.set(bizLock, redisson);
+        return bizLock;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
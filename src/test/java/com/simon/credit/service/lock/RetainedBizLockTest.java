@@ -0,0 +1,58 @@
+package com.simon.credit.service.lock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.Redisson;
+import org.redisson.config.Config;
+
+/**
+ * 锁保留(偏向锁)测试: 两个RedisDistributedBizLock实例模拟两个节点
+ */
+public class RetainedBizLockTest {
+
+    private static final String LOCK_NAME = "lock_credit_risk_retained";
+
+    private static final long RETENTION_MILLIS = 10000L;
+
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://192.168.67.129:6379").setPassword("DevFtqw1206F").setDatabase(0);
+        Redisson redisson = (Redisson) Redisson.create(config);
+
+        RedisDistributedBizLock nodeA = RedisDistributedBizLockTest.newBizLock(redisson);
+        RedisDistributedBizLock nodeB = RedisDistributedBizLockTest.newBizLock(redisson);
+        nodeA.setRetentionMillis(RETENTION_MILLIS);
+        nodeB.setRetentionMillis(RETENTION_MILLIS);
+
+        try {
+            // 节点A反复加锁: 首次访问Redis, 之后保留期内直接复用, 防护令牌保持不变
+            for (int i = 1; i <= 5; i++) {
+                long start = System.nanoTime();
+                long token = nodeA.lock(LOCK_NAME, () -> System.nanoTime());
+                System.out.println("节点A第" + i + "次加锁, 耗时(微秒): " + elapsedMicros(start) + ", token: " + token);
+            }
+
+            // 节点B加锁: 通知节点A释放保留的锁, 不必等到保留期结束
+            long start = System.nanoTime();
+            nodeB.lock(LOCK_NAME, () -> null, 5, TimeUnit.SECONDS);
+            long waitMillis = TimeUnit.MICROSECONDS.toMillis(elapsedMicros(start));
+            System.out.println("节点B加锁, 等待(毫秒): " + waitMillis);
+            if (waitMillis >= RETENTION_MILLIS) {
+                throw new IllegalStateException("node A did not hand off the retained lock");
+            }
+
+            // 节点A再次加锁: 节点B保留着锁, 同样通知其让出
+            start = System.nanoTime();
+            nodeA.lock(LOCK_NAME, () -> null, 5, TimeUnit.SECONDS);
+            System.out.println("节点A重新加锁, 等待(毫秒): " + TimeUnit.MICROSECONDS.toMillis(elapsedMicros(start)));
+            System.out.println("RetainedBizLockTest passed");
+        } finally {
+            redisson.shutdown();
+        }
+    }
+
+    private static long elapsedMicros(long start) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.simon.credit.service.lock;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.Redisson;
+import org.redisson.api.RFuture;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.protocol.RedisCommands;
+import org.redisson.command.CommandAsyncExecutor;
+import org.redisson.config.Config;
+import org.redisson.pubsub.LockPubSub;
+
+/**
+ * 无竞争加锁/释放锁时Redis的CPU消耗对比: 释放锁总是发布通知 vs 只在有等待线程时发布通知
+ */
+public class UnlockPublishBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://192.168.67.129:6379").setPassword("DevFtqw1206F").setDatabase(0);
+        Redisson redisson = (Redisson) Redisson.create(config);
+        CommandAsyncExecutor commandExecutor = redisson.getConnectionManager().getCommandExecutor();
+        RedisNode node = redisson.getRedisNodes(RedisNodes.SINGLE).getInstance();
+
+        try {
+            // 预热
+            run(new MyRedissonLock(commandExecutor, "benchmark_lock"), ITERATIONS / 10);
+            run(new AlwaysPublishLock(commandExecutor, "benchmark_lock"), ITERATIONS / 10);
+
+            measure("always publish", node, new AlwaysPublishLock(commandExecutor, "benchmark_lock"));
+            measure("publish if waiting", node, new MyRedissonLock(commandExecutor, "benchmark_lock"));
+        } finally {
+            redisson.shutdown();
+        }
+    }
+
+    private static void measure(String name, RedisNode node, MyRedissonLock lock) throws InterruptedException {
+        Map<String, String> cpuBefore = node.info(RedisNode.InfoSection.CPU);
+        long publishBefore = publishCalls(node);
+        long start = System.nanoTime();
+
+        run(lock, ITERATIONS);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Map<String, String> cpuAfter = node.info(RedisNode.InfoSection.CPU);
+        double cpuSeconds = cpuSeconds(cpuAfter) - cpuSeconds(cpuBefore);
+        System.out.printf("%-20s %d次加锁/释放锁: 耗时%dms, Redis CPU %.3fs (%.2fus/次), publish %d次%n",
+                name, ITERATIONS, elapsedMillis, cpuSeconds, cpuSeconds * 1000000 / ITERATIONS, publishCalls(node) - publishBefore);
+    }
+
+    private static void run(MyRedissonLock lock, int iterations) throws InterruptedException {
+        for (int i = 0; i < iterations; i++) {
+            if (lock.tryLock(0, 10000, TimeUnit.MILLISECONDS)) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static double cpuSeconds(Map<String, String> cpu) {
+        return Double.parseDouble(cpu.get("used_cpu_user")) + Double.parseDouble(cpu.get("used_cpu_sys"));
+    }
+
+    private static long publishCalls(RedisNode node) {
+        // cmdstat_publish:calls=123,usec=456,usec_per_call=3.71
+        String stat = node.info(RedisNode.InfoSection.COMMANDSTATS).get("cmdstat_publish");
+        if (stat == null) {
+            return 0L;
+        }
+        String calls = stat.substring(stat.indexOf("calls=") + "calls=".length());
+        return Long.parseLong(calls.substring(0, calls.indexOf(',')));
+    }
+
+    /**
+     * 原有的释放锁脚本: 无论是否有等待线程都发布通知
+     */
+    private static class AlwaysPublishLock extends MyRedissonLock {
+
+        AlwaysPublishLock(CommandAsyncExecutor commandExecutor, String name) {
+            super(commandExecutor, name);
+        }
+
+        @Override
+        protected RFuture<Boolean> unlockInnerAsync(long threadId) {
+            String script = "if (redis.call('hexists', KEYS[1], ARGV[3]) == 0) " +
+                            "   then return nil; " +
+                            "end; " +
+                            "local counter = redis.call('hincrby', KEYS[1], ARGV[3], -1); " +
+                            "if (counter > 0) " +
+                            "   then redis.call('pexpire', KEYS[1], ARGV[2]); " +
+                            "   return 0; " +
+                            "else redis.call('del', KEYS[1]); " +
+                            "   redis.call('publish', KEYS[2], ARGV[1]); " +
+                            "   return 1; " +
+                            "end; " +
+                            "return nil;";
+            return this.evalWriteAsync(this.getName(), LongCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, script,
+                    Arrays.asList(this.getName(), this.getChannelName()), LockPubSub.UNLOCK_MESSAGE, this.internalLockLeaseTime, this.getLockName(threadId));
+        }
+    }
+
+}
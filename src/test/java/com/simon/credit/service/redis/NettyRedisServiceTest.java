@@ -0,0 +1,37 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import redis.clients.jedis.JedisShardInfo;
+
+public class NettyRedisServiceTest {
+
+	private static final int REQUESTS = 100000;
+
+	public static void main(String[] args) throws Exception {
+		JedisShardInfo jedisShardInfo = new JedisShardInfo("192.168.67.129", 6379);
+		jedisShardInfo.setPassword("DevFtqw1206F");
+
+		// 2个IO线程, 每个分片2个连接
+		NettyRedisService redisService = new NettyRedisService(Arrays.asList(jedisShardInfo), 2, 2);
+		try {
+			long start = System.nanoTime();
+			List<CompletableFuture<String>> futures = new ArrayList<>(REQUESTS);
+			for (int i = 0; i < REQUESTS; i++) {
+				String key = "netty_redis_test_" + i;
+				futures.add(redisService.set(key, String.valueOf(i), 60).thenCompose(ok -> redisService.get(key)));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			System.out.println(REQUESTS + " 次set+get耗时: " + elapsedMillis + "ms, 最后一个值: " + futures.get(REQUESTS - 1).get());
+		} finally {
+			redisService.shutdown();
+		}
+	}
+
+}
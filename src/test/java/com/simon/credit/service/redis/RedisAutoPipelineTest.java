@@ -0,0 +1,80 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedisPool;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * 自动流水线混合批次: hash键上的get返回类型错误, 同一批次中的其它命令不受影响
+ */
+public class RedisAutoPipelineTest {
+
+	private static final String HASH_KEY = "auto_pipeline_hash";
+
+	private static final int THREADS = 32;
+
+	private static final int REQUESTS = 10000;
+
+	public static void main(String[] args) throws Exception {
+		ShardedJedisPool shardedJedisPool = getShardedJedisPool();
+		RedisServiceImpl redisService = new RedisServiceImpl();
+		redisService.setShardedJedisPool(shardedJedisPool);
+		redisService.setAutoPipelining(true);
+
+		redisService.hset(HASH_KEY, "field", "value");
+		for (int i = 0; i < THREADS; i++) {
+			redisService.set("auto_pipeline_key_" + i, String.valueOf(i), 60);
+		}
+
+		AtomicInteger succeeded = new AtomicInteger();
+		AtomicInteger wrongType = new AtomicInteger();
+		AtomicInteger unexpected = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<CompletableFuture<Void>> futures = new ArrayList<>(REQUESTS);
+			for (int i = 0; i < REQUESTS; i++) {
+				// 每隔4个请求混入一个错误命令
+				String key = i % 4 == 0 ? HASH_KEY : "auto_pipeline_key_" + (i % THREADS);
+				futures.add(CompletableFuture.runAsync(() -> {
+					try {
+						if (redisService.get(key) != null) {
+							succeeded.incrementAndGet();
+						}
+					} catch (JedisDataException e) {
+						wrongType.incrementAndGet();
+					} catch (RuntimeException e) {
+						unexpected.incrementAndGet();
+					}
+				}, executor));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+
+		System.out.println("成功: " + succeeded + ", 类型错误: " + wrongType + ", 其它错误: " + unexpected);
+		redisService.del(HASH_KEY);
+		shardedJedisPool.close();
+	}
+
+	private static ShardedJedisPool getShardedJedisPool() {
+		JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+		jedisPoolConfig.setMaxTotal(1024);
+
+		JedisShardInfo jedisShardInfo = new JedisShardInfo("192.168.67.129", 6379);
+		jedisShardInfo.setPassword("DevFtqw1206F");
+
+		return new ShardedJedisPool(jedisPoolConfig, Arrays.asList(jedisShardInfo));
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.simon.credit.service.redis;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.DistributedReadWriteLock;
+
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPool;
+
+/**
+ * 读写锁读吞吐量测试: 读者数量翻倍, 读吞吐量应随之增长
+ */
+public class RedisDistributedReadWriteLockTest {
+
+	private static final String LOCK_KEY = "lock_credit_risk_rule";
+
+	/** 每轮测试时长(秒) */
+	private static final int DURATION_SECONDS = 5;
+
+	/** 模拟读临界区耗时(毫秒) */
+	private static final int READ_MILLIS = 5;
+
+	public static void main(String[] args) throws InterruptedException {
+		ShardedJedisPool shardedJedisPool = getShardedJedisPool();
+
+		for (int readers = 1; readers <= 32; readers *= 2) {
+			long reads = benchmark(shardedJedisPool, readers);
+			System.out.println("readers: " + readers + ", reads/s: " + reads / DURATION_SECONDS);
+		}
+
+		shardedJedisPool.close();
+	}
+
+	private static long benchmark(ShardedJedisPool shardedJedisPool, int readers) throws InterruptedException {
+		AtomicLong reads = new AtomicLong();
+		CountDownLatch latch = new CountDownLatch(readers);
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(DURATION_SECONDS);
+
+		for (int i = 0; i < readers; i++) {
+			new Thread(() -> {
+				try (ShardedJedis shardedJedis = shardedJedisPool.getResource()) {
+					DistributedReadWriteLock readWriteLock = new RedisDistributedReadWriteLock(shardedJedis, LOCK_KEY);
+					DistributedLock readLock = readWriteLock.readLock();
+					while (System.currentTimeMillis() < deadline) {
+						if (readLock.tryLock()) {
+							try {
+								TimeUnit.MILLISECONDS.sleep(READ_MILLIS);
+								reads.incrementAndGet();
+							} finally {
+								readLock.realseLock();
+							}
+						}
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+
+		latch.await();
+		return reads.get();
+	}
+
+	private static ShardedJedisPool getShardedJedisPool() {
+		JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+		jedisPoolConfig.setMaxTotal(1024);
+
+		JedisShardInfo jedisShardInfo = new JedisShardInfo("192.168.67.129", 6379);
+		jedisShardInfo.setPassword("DevFtqw1206F");
+
+		return new ShardedJedisPool(jedisPoolConfig, Arrays.asList(jedisShardInfo));
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedisPool;
+
+/**
+ * 公平模式测试: 等待者依次间隔50毫秒开始排队, 加锁顺序必须与排队顺序一致
+ */
+public class RedisFairLockTest {
+
+	private static final String LOCK_KEY = "lock_credit_risk_fair";
+
+	private static final List<Integer> ACQUIRE_ORDER = new ArrayList<>();
+
+	public static void main(String[] args) throws InterruptedException {
+		ShardedJedisPool shardedJedisPool = getShardedJedisPool();
+
+		CountDownLatch latch = new CountDownLatch(10);
+
+		for (int i = 1; i <= 10; i++) {
+			final int index = i;
+			new Thread(() -> {
+				RedisDistributedLock lock = new RedisDistributedLock(shardedJedisPool.getResource(), LOCK_KEY, true);
+				lock.setLeaseMillis(10000);
+				lock.setFairMode(true);
+				try {
+					if (lock.tryLock(20, TimeUnit.SECONDS)) {
+						synchronized (ACQUIRE_ORDER) {
+							ACQUIRE_ORDER.add(index);
+						}
+						System.out.println(index + " 获取到锁...");
+						TimeUnit.MILLISECONDS.sleep(200);
+						lock.realseLock();
+					} else {
+						System.out.println(index + " 超时获取不到锁...");
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+			TimeUnit.MILLISECONDS.sleep(50);
+		}
+
+		latch.await();
+		shardedJedisPool.close();
+
+		if (ACQUIRE_ORDER.size() != 10) {
+			throw new IllegalStateException("some waiters timed out: " + ACQUIRE_ORDER);
+		}
+		for (int i = 0; i < ACQUIRE_ORDER.size(); i++) {
+			if (ACQUIRE_ORDER.get(i) != i + 1) {
+				throw new IllegalStateException("acquire order is not FIFO: " + ACQUIRE_ORDER);
+			}
+		}
+		System.out.println("RedisFairLockTest passed, acquire order: " + ACQUIRE_ORDER);
+	}
+
+	private static ShardedJedisPool getShardedJedisPool() {
+		JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+		jedisPoolConfig.setMaxTotal(1024);
+
+		JedisShardInfo jedisShardInfo = new JedisShardInfo("192.168.67.129", 6379);
+		jedisShardInfo.setPassword("DevFtqw1206F");
+
+		return new ShardedJedisPool(jedisPoolConfig, Arrays.asList(jedisShardInfo));
+	}
+
+}
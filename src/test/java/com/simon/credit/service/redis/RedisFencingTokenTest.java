@@ -0,0 +1,75 @@
+package com.simon.credit.service.redis;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.DistributedLock;
+
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedisPool;
+
+/**
+ * 防护令牌测试: 模拟下游存储只接受不小于已见最大值的令牌, 按加锁先后发放的令牌必须严格递增
+ */
+public class RedisFencingTokenTest {
+
+	private static final String LOCK_KEY = "lock_credit_risk_fencing";
+
+	/** 下游存储已见的最大令牌 */
+	private static long maxSeenToken = DistributedLock.NO_FENCING_TOKEN;
+
+	public static void main(String[] args) throws InterruptedException {
+		ShardedJedisPool shardedJedisPool = getShardedJedisPool();
+
+		CountDownLatch latch = new CountDownLatch(10);
+
+		for (int i = 1; i <= 10; i++) {
+			final int index = i;
+			new Thread(() -> {
+				DistributedLock lock = new RedisDistributedLock(shardedJedisPool.getResource(), LOCK_KEY, true);
+				try {
+					if (lock.tryLock(20, TimeUnit.SECONDS)) {
+						long token = lock.getFencingToken();
+						System.out.println(index + " 获取到锁, 防护令牌: " + token);
+						write(token);
+						TimeUnit.MILLISECONDS.sleep(100);
+						lock.realseLock();
+					} else {
+						System.out.println(index + " 超时获取不到锁...");
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+
+		latch.await();
+		shardedJedisPool.close();
+		System.out.println("RedisFencingTokenTest passed, max token: " + maxSeenToken);
+	}
+
+	/**
+	 * 模拟下游存储的写入校验
+	 */
+	private static synchronized void write(long token) {
+		if (token <= maxSeenToken) {
+			throw new IllegalStateException("stale fencing token " + token + ", max seen " + maxSeenToken);
+		}
+		maxSeenToken = token;
+	}
+
+	private static ShardedJedisPool getShardedJedisPool() {
+		JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+		jedisPoolConfig.setMaxTotal(1024);
+
+		JedisShardInfo jedisShardInfo = new JedisShardInfo("192.168.67.129", 6379);
+		jedisShardInfo.setPassword("DevFtqw1206F");
+
+		return new ShardedJedisPool(jedisPoolConfig, Arrays.asList(jedisShardInfo));
+	}
+
+}
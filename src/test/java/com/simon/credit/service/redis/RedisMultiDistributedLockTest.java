@@ -0,0 +1,72 @@
+package com.simon.credit.service.redis;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.lock.LockRetryPolicies;
+
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedisPool;
+
+public class RedisMultiDistributedLockTest {
+
+	private static final List<List<String>> LOCK_KEY_GROUPS = Arrays.asList(
+			Arrays.asList("lock_account_a", "lock_account_b"),
+			Arrays.asList("lock_account_b", "lock_account_c"),
+			Arrays.asList("lock_account_c", "lock_account_a"));
+
+	public static void main(String[] args) throws InterruptedException {
+		// 获取redis分片连接池
+		ShardedJedisPool shardedJedisPool = getShardedJedisPool();
+
+		CountDownLatch latch = new CountDownLatch(9);
+
+		for (int i = 1; i <= 9; i++) {
+			final int index = i;
+			new Thread(() -> {
+				// 锁键组两两重叠, 同一时刻只有一个线程能拿到锁
+				RedisMultiDistributedLock lock = new RedisMultiDistributedLock(shardedJedisPool.getResource(),
+						LOCK_KEY_GROUPS.get(index % LOCK_KEY_GROUPS.size()));
+				// 放宽重试间隔: 锁释放后由通知唤醒, 等待耗时不受轮询间隔影响
+				lock.setRetryPolicy(LockRetryPolicies.fixedDelay(1000L));
+				boolean getLock = false;
+				try {
+					long start = System.nanoTime();
+					getLock = lock.tryLock(20, TimeUnit.SECONDS);
+					long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					if (getLock) {
+						System.out.println(index + " 获取到锁, 等待(毫秒): " + cost);
+						TimeUnit.MILLISECONDS.sleep(200);
+					} else {
+						System.out.println(index + " 超时获取不到锁...");
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				} finally {
+					if (getLock) {
+						lock.realseLock();
+						System.out.println(index + " 释放锁...");
+					}
+					latch.countDown();
+				}
+			}).start();
+		}
+
+		latch.await();
+		shardedJedisPool.close();
+	}
+
+	private static ShardedJedisPool getShardedJedisPool() {
+		JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+		jedisPoolConfig.setMaxTotal(1024);
+
+		JedisShardInfo jedisShardInfo = new JedisShardInfo("192.168.67.129", 6379);
+		jedisShardInfo.setPassword("DevFtqw1206F");
+
+		return new ShardedJedisPool(jedisPoolConfig, Arrays.asList(jedisShardInfo));
+	}
+
+}
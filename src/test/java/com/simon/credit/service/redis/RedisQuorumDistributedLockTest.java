@@ -0,0 +1,56 @@
+package com.simon.credit.service.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import redis.clients.jedis.Jedis;
+
+/**
+ * 多主节点锁测试, 先在本地启动3个相互独立的redis-server:<br>
+ * redis-server --port 6379 &amp; redis-server --port 6380 &amp; redis-server --port 6381 &amp;
+ */
+public class RedisQuorumDistributedLockTest {
+
+	private static final String LOCK_KEY = "lock_credit_risk_quorum";
+
+	private static final int[] PORTS = { 6379, 6380, 6381 };
+
+	public static void main(String[] args) throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(10);
+
+		for (int i = 1; i <= 10; i++) {
+			final int index = i;
+			new Thread(() -> {
+				List<Jedis> jedisList = new ArrayList<>();
+				for (int port : PORTS) {
+					jedisList.add(new Jedis("127.0.0.1", port));
+				}
+
+				RedisQuorumDistributedLock lock = new RedisQuorumDistributedLock(jedisList, LOCK_KEY);
+				lock.setLeaseMillis(5000);
+				try {
+					long start = System.nanoTime();
+					boolean getLock = lock.tryLock(20, TimeUnit.SECONDS);
+					long cost = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+					if (getLock) {
+						System.out.println(index + " 获取到锁, 耗时(微秒): " + cost + ", 剩余有效期(毫秒): " + lock.getRemainingValidityMillis());
+						TimeUnit.MILLISECONDS.sleep(500);
+					} else {
+						System.out.println(index + " 超时获取不到锁...");
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				} finally {
+					lock.realseLock();
+					latch.countDown();
+					System.out.println(index + " 释放锁...");
+				}
+			}).start();
+		}
+
+		latch.await();
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.simon.credit.service.redis;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedisPool;
+
+/**
+ * 批量操作测试: 两个分片(同一Redis的0号库和1号库), 键按分片分组后各分片一次往返, 结果与输入顺序一致
+ */
+public class RedisServiceBatchTest {
+
+	private static final int KEYS = 500;
+
+	public static void main(String[] args) {
+		ShardedJedisPool shardedJedisPool = getShardedJedisPool();
+		RedisServiceImpl redisService = new RedisServiceImpl();
+		redisService.setShardedJedisPool(shardedJedisPool);
+
+		List<String> keys = new ArrayList<>(KEYS);
+		Map<String, String> keyValues = new LinkedHashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			String key = "batch_key_" + i;
+			keys.add(key);
+			keyValues.put(key, String.valueOf(i));
+		}
+
+		long start = System.currentTimeMillis();
+		redisService.msetex(keyValues, 60);
+		List<String> values = redisService.mget(keys);
+		System.out.println("批量写入并读取" + KEYS + "个key, 耗时(毫秒): " + (System.currentTimeMillis() - start));
+		for (int i = 0; i < KEYS; i++) {
+			if (!String.valueOf(i).equals(values.get(i))) {
+				throw new IllegalStateException("mget out of order at " + i + ": " + values.get(i));
+			}
+		}
+
+		// 逐个读取作为对比: 每个key一次往返
+		start = System.currentTimeMillis();
+		for (String key : keys) {
+			redisService.get(key);
+		}
+		System.out.println("逐个读取" + KEYS + "个key, 耗时(毫秒): " + (System.currentTimeMillis() - start));
+
+		// 多个hash的同一field, 不存在的key对应null
+		redisService.hset("batch_hash_1", "status", "1");
+		redisService.hset("batch_hash_2", "status", "2");
+		System.out.println("mhget: " + redisService.mhget(Arrays.asList("batch_hash_1", "batch_hash_missing", "batch_hash_2"), "status"));
+
+		Long deleted = redisService.mdel(keys);
+		redisService.mdel(Arrays.asList("batch_hash_1", "batch_hash_2"));
+		System.out.println("mdel删除: " + deleted + ", 删除后mget: " + redisService.mget(keys.subList(0, 3)));
+		shardedJedisPool.close();
+	}
+
+	private static ShardedJedisPool getShardedJedisPool() {
+		JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+		jedisPoolConfig.setMaxTotal(1024);
+
+		JedisShardInfo shard0 = new JedisShardInfo(URI.create("redis://:DevFtqw1206F@192.168.67.129:6379/0"));
+		JedisShardInfo shard1 = new JedisShardInfo(URI.create("redis://:DevFtqw1206F@192.168.67.129:6379/1"));
+
+		return new ShardedJedisPool(jedisPoolConfig, Arrays.asList(shard0, shard1));
+	}
+
+}
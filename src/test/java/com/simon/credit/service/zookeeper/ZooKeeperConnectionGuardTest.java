@@ -0,0 +1,73 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.curator.framework.state.ConnectionState;
+
+/**
+ * 连接状态守卫测试(不依赖ZooKeeper): 以阻塞等待模拟加锁, 由测试线程直接通知连接状态变化
+ */
+public class ZooKeeperConnectionGuardTest {
+
+	public static void main(String[] args) throws Exception {
+		ZooKeeperConnectionGuard guard = new ZooKeeperConnectionGuard();
+		check(guard.isHealthy(), "healthy before any state change");
+		check(guard.acquire(() -> true), "acquires while connected");
+
+		// 等待中的加锁在连接中断时立即中止
+		CountDownLatch waiting = new CountDownLatch(1);
+		AtomicBoolean result = new AtomicBoolean(true);
+		AtomicLong elapsedMillis = new AtomicLong();
+		AtomicBoolean interruptedAfter = new AtomicBoolean();
+		Thread acquirer = new Thread(() -> {
+			long start = System.nanoTime();
+			try {
+				result.set(guard.acquire(() -> {
+					waiting.countDown();
+					TimeUnit.SECONDS.sleep(10);
+					return true;
+				}));
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			elapsedMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			interruptedAfter.set(Thread.currentThread().isInterrupted());
+		});
+		acquirer.start();
+		waiting.await();
+		guard.stateChanged(null, ConnectionState.SUSPENDED);
+		acquirer.join();
+		check(!result.get(), "waiting acquisition is aborted on SUSPENDED");
+		check(elapsedMillis.get() < 1000, "aborted without waiting for maxWait: " + elapsedMillis.get() + "ms");
+		check(!interruptedAfter.get(), "guard clears the interrupt it set");
+
+		// 连接中断期间立即失败, 不执行加锁
+		AtomicBoolean invoked = new AtomicBoolean();
+		check(!guard.acquire(() -> invoked.getAndSet(true)), "fails fast while SUSPENDED");
+		check(!invoked.get(), "acquisition is not attempted while SUSPENDED");
+
+		guard.stateChanged(null, ConnectionState.LOST);
+		check(!guard.isHealthy(), "unhealthy after LOST");
+
+		guard.stateChanged(null, ConnectionState.RECONNECTED);
+		check(guard.isHealthy(), "healthy after RECONNECTED");
+		check(guard.acquire(() -> true), "acquires again after RECONNECTED");
+
+		// 已结束的加锁不再被中断
+		guard.stateChanged(null, ConnectionState.SUSPENDED);
+		check(!Thread.currentThread().isInterrupted(), "finished acquisition is not interrupted later");
+
+		System.out.println("ZooKeeperConnectionGuardTest passed");
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+		System.out.println("ok: " + message);
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.simon.credit.service.DistributedLock;
+import com.simon.credit.service.zookeeper.ZooKeeperDistributedLock.ClientInitializer;
+
+/**
+ * 防护令牌测试: 同步加锁与异步加锁交替使用同一路径, 模拟下游存储只接受不小于已见最大值的令牌
+ */
+public class ZooKeeperFencingTokenTest {
+
+	/** 下游存储已见的最大令牌 */
+	private static long maxSeenToken = DistributedLock.NO_FENCING_TOKEN;
+
+	public static void main(String[] args) throws InterruptedException {
+		ClientInitializer clientInitializer = new ClientInitializer("zookeeper://127.0.0.1:2181", "credit");
+		clientInitializer.init();// 初始化zookeeper客户端
+
+		CountDownLatch latch = new CountDownLatch(10);
+
+		for (int i = 1; i <= 10; i++) {
+			final int index = i;
+			new Thread(() -> {
+				ZooKeeperDistributedLock lock = new ZooKeeperDistributedLock("/riskman_fencing");
+				try {
+					// 奇数线程同步加锁, 偶数线程异步加锁
+					boolean getLock = index % 2 == 1 ? lock.tryLock(10, TimeUnit.SECONDS) : lock.tryLockAsync(10, TimeUnit.SECONDS).join();
+					if (getLock) {
+						long token = lock.getFencingToken();
+						System.out.println(index + " 获取到锁, 防护令牌: " + token);
+						write(token);
+						TimeUnit.MILLISECONDS.sleep(100);
+					} else {
+						System.out.println(index + " 超时获取不到锁...");
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				} finally {
+					lock.releaseAsync().join();
+					latch.countDown();
+				}
+			}).start();
+		}
+
+		latch.await();
+		System.out.println("ZooKeeperFencingTokenTest passed, max token: " + maxSeenToken);
+	}
+
+	/**
+	 * 模拟下游存储的写入校验
+	 */
+	private static synchronized void write(long token) {
+		if (token == DistributedLock.NO_FENCING_TOKEN || token <= maxSeenToken) {
+			throw new IllegalStateException("stale fencing token " + token + ", max seen " + maxSeenToken);
+		}
+		maxSeenToken = token;
+	}
+
+}
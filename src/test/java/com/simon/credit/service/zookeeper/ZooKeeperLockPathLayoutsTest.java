@@ -0,0 +1,78 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import redis.clients.util.MurmurHash;
+
+/**
+ * 锁路径布局测试(不依赖ZooKeeper)
+ */
+public class ZooKeeperLockPathLayoutsTest {
+
+	private static final int RESOURCES = 100000;
+
+	public static void main(String[] args) {
+		check("/whitelistCheck/batch1".equals(ZooKeeperLockPathLayouts.flat().build("whitelistCheck", "batch1")), "flat layout");
+
+		// 哈希与Jedis分片一致(种子相同), 与进程无关
+		MurmurHash jedisHashing = new MurmurHash();
+		for (String key : new String[] { "", "a", "batch1", "12345678", "checkWhitelistBatch1", "中文资源-0001" }) {
+			check(ZooKeeperHashing.murmur64(key) == jedisHashing.hash(key), "murmur64 matches jedis for \"" + key + "\"");
+		}
+
+		ZooKeeperLockPathLayout layout = ZooKeeperLockPathLayouts.hashBuckets(256, 2);
+		String path = layout.build("whitelistCheck", "batch1");
+		check(path.matches("/whitelistCheck/[0-9a-f]{2}/[0-9a-f]{2}/batch1"), "two-level bucket path: " + path);
+		check(path.equals(layout.build("whitelistCheck", "batch1")), "bucket path is stable");
+		check(ZooKeeperLockPathLayouts.hashBuckets(4096, 1).build("b", "r").matches("/b/[0-9a-f]{3}/r"), "bucket width for fanOut 4096");
+		check(ZooKeeperLockPathLayouts.hashBuckets(65536, 1).build("b", "r").matches("/b/[0-9a-f]{4}/r"), "bucket width for fanOut 65536");
+
+		// 各级桶分布均匀: 每个桶的资源数在期望值的±30%以内
+		Map<String, Integer> firstLevel = new HashMap<>();
+		Map<String, Integer> secondLevel = new HashMap<>();
+		for (int i = 0; i < RESOURCES; i++) {
+			String[] parts = layout.build("b", "resource-" + i).split("/");
+			firstLevel.merge(parts[2], 1, Integer::sum);
+			secondLevel.merge(parts[3], 1, Integer::sum);
+		}
+		checkUniform(firstLevel, "first level");
+		checkUniform(secondLevel, "second level");
+
+		checkRejected(() -> ZooKeeperLockPathLayouts.hashBuckets(1, 1), "fanOut 1");
+		checkRejected(() -> ZooKeeperLockPathLayouts.hashBuckets(65537, 1), "fanOut 65537");
+		checkRejected(() -> ZooKeeperLockPathLayouts.hashBuckets(16, 0), "levels 0");
+		checkRejected(() -> ZooKeeperLockPathLayouts.hashBuckets(16, 5), "levels 5");
+
+		System.out.println("ZooKeeperLockPathLayoutsTest passed");
+	}
+
+	private static void checkUniform(Map<String, Integer> buckets, String level) {
+		check(buckets.size() == 256, level + " uses all 256 buckets: " + buckets.size());
+		double expected = (double) RESOURCES / 256;
+		for (Map.Entry<String, Integer> bucket : buckets.entrySet()) {
+			if (Math.abs(bucket.getValue() - expected) > expected * 0.3) {
+				throw new AssertionError(level + " bucket " + bucket.getKey() + " holds " + bucket.getValue() + ", expected about " + (int) expected);
+			}
+		}
+		System.out.println("ok: " + level + " buckets are uniform");
+	}
+
+	private static void checkRejected(Runnable invalid, String message) {
+		try {
+			invalid.run();
+		} catch (IllegalArgumentException e) {
+			System.out.println("ok: rejects " + message);
+			return;
+		}
+		throw new AssertionError("accepted " + message);
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+		System.out.println("ok: " + message);
+	}
+
+}
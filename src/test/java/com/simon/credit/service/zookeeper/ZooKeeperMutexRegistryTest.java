@@ -0,0 +1,53 @@
+package com.simon.credit.service.zookeeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+
+/**
+ * 锁实例注册表测试(不依赖ZooKeeper: 创建锁实例不访问ZK, 客户端无需启动)
+ */
+public class ZooKeeperMutexRegistryTest {
+
+	private static final long IDLE_MILLIS = 50L;
+
+	public static void main(String[] args) throws InterruptedException {
+		CuratorFramework client = CuratorFrameworkFactory.newClient("127.0.0.1:2181", new RetryOneTime(1000));
+		ZooKeeperMutexRegistry registry = new ZooKeeperMutexRegistry(client, IDLE_MILLIS);
+
+		ZooKeeperMutex riskman = registry.get("/riskman");
+		check(registry.get("/riskman") == riskman, "same path reuses the mutex");
+		check(registry.get("/riskman_other") != riskman, "different paths get different mutexes");
+		check(registry.size() == 2, "registry holds one mutex per path: " + registry.size());
+
+		// 未到空闲时间不移除
+		registry.evictIdle(System.currentTimeMillis());
+		check(registry.size() == 2, "recently used mutexes are kept: " + registry.size());
+
+		// 空闲超时后由下一次获取顺带清理, 被获取的路径重新计时
+		TimeUnit.MILLISECONDS.sleep(IDLE_MILLIS * 2);
+		check(registry.get("/riskman") == riskman, "idle mutex is still returned when requested");
+		check(registry.size() == 1, "idle mutexes are evicted on access: " + registry.size());
+		check(registry.get("/riskman_other") != null, "evicted path gets a new mutex");
+
+		try {
+			new ZooKeeperMutexRegistry(client, 0L);
+			throw new AssertionError("idleMillis must be positive");
+		} catch (IllegalArgumentException e) {
+			System.out.println("ok: non-positive idleMillis is rejected");
+		}
+
+		client.close();
+		System.out.println("ZooKeeperMutexRegistryTest passed");
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+		System.out.println("ok: " + message);
+	}
+
+}